@@ -0,0 +1,100 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark;
+
+import io.binghe.redis.benchmark.support.BenchmarkCacheServices;
+import io.binghe.redis.benchmark.support.InMemoryStringRedisTemplate;
+import io.binghe.redis.benchmark.support.Product;
+import io.binghe.redis.cache.distribute.DistributeCacheService;
+import io.binghe.redis.cache.distribute.key.CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.key.md5.Md5CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.key.murmur3.Murmur3CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.serializer.hutool.HutoolCacheSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 缓存key生成的基准测试，覆盖简单类型直接拼接和复杂参数计算摘要的路径，对比MurmurHash3和MD5
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private static final String KEY_PREFIX = "bench:product:";
+
+    @Param({"murmur3", "md5"})
+    private String keyGenerator;
+
+    private DistributeCacheService cacheService;
+    private Long longId;
+    private String stringId;
+    private Product objectId;
+    private Map<String, Object> mapId;
+
+    @Setup
+    public void setup(){
+        CacheKeyGenerator cacheKeyGenerator = "md5".equals(keyGenerator) ? Md5CacheKeyGenerator.getInstance() : Murmur3CacheKeyGenerator.getInstance();
+        cacheService = BenchmarkCacheServices.create(new InMemoryStringRedisTemplate(), HutoolCacheSerializer.getInstance(), cacheKeyGenerator);
+        longId = 1234567890L;
+        stringId = "product-1234567890";
+        objectId = Product.of(1234567890L);
+        mapId = new LinkedHashMap<>();
+        mapId.put("category", "phone");
+        mapId.put("pageNo", 1);
+        mapId.put("pageSize", 20);
+    }
+
+    @Benchmark
+    public String longId(){
+        return cacheService.getKey(KEY_PREFIX, longId);
+    }
+
+    @Benchmark
+    public String stringId(){
+        return cacheService.getKey(KEY_PREFIX, stringId);
+    }
+
+    @Benchmark
+    public String objectId(){
+        return cacheService.getKey(KEY_PREFIX, objectId);
+    }
+
+    @Benchmark
+    public String mapId(){
+        return cacheService.getKey(KEY_PREFIX, mapId);
+    }
+}
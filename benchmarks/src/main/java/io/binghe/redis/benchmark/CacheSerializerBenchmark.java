@@ -0,0 +1,107 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark;
+
+import io.binghe.redis.benchmark.support.BenchmarkCacheServices;
+import io.binghe.redis.benchmark.support.InMemoryStringRedisTemplate;
+import io.binghe.redis.benchmark.support.Product;
+import io.binghe.redis.cache.distribute.DistributeCacheService;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import io.binghe.redis.cache.distribute.serializer.hutool.HutoolCacheSerializer;
+import io.binghe.redis.cache.distribute.serializer.jackson.JacksonCacheSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description getValue和getResult的基准测试，对比不同的序列化方式
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"hutool", "jackson"})
+    private String serializer;
+
+    private DistributeCacheService cacheService;
+    private Product product;
+    private List<Product> products;
+    private String productJson;
+    private String productsJson;
+
+    @Setup
+    public void setup(){
+        CacheSerializer cacheSerializer = "jackson".equals(serializer) ? new JacksonCacheSerializer() : HutoolCacheSerializer.getInstance();
+        cacheService = BenchmarkCacheServices.create(new InMemoryStringRedisTemplate(), cacheSerializer);
+        product = Product.of(1L);
+        products = new ArrayList<>(20);
+        for (long i = 0; i < 20; i++){
+            products.add(Product.of(i));
+        }
+        productJson = cacheService.getValue(product);
+        productsJson = cacheService.getValue(products);
+    }
+
+    @Benchmark
+    public String getValueSimple(){
+        return cacheService.getValue(1234567890L);
+    }
+
+    @Benchmark
+    public String getValueObject(){
+        return cacheService.getValue(product);
+    }
+
+    @Benchmark
+    public String getValueList(){
+        return cacheService.getValue(products);
+    }
+
+    @Benchmark
+    public Long getResultSimple(){
+        return cacheService.getResult("1234567890", Long.class);
+    }
+
+    @Benchmark
+    public Product getResultObject(){
+        return cacheService.getResult(productJson, Product.class);
+    }
+
+    @Benchmark
+    public List<Product> getResultList(){
+        return cacheService.getResultList(productsJson, Product.class);
+    }
+}
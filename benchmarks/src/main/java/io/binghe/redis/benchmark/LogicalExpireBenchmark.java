@@ -0,0 +1,100 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark;
+
+import io.binghe.redis.benchmark.support.BenchmarkCacheServices;
+import io.binghe.redis.benchmark.support.InMemoryStringRedisTemplate;
+import io.binghe.redis.benchmark.support.Product;
+import io.binghe.redis.cache.distribute.DistributeCacheService;
+import io.binghe.redis.cache.distribute.data.LogicalExpireEnvelope;
+import io.binghe.redis.cache.distribute.data.RedisData;
+import io.binghe.redis.cache.distribute.serializer.hutool.HutoolCacheSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 逻辑过期数据编码和解析的基准测试，对比JSON格式的RedisData和LogicalExpireEnvelope
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogicalExpireBenchmark {
+
+    private DistributeCacheService cacheService;
+    private Product product;
+    private String redisDataJson;
+    private String envelope;
+
+    @Setup
+    public void setup(){
+        cacheService = BenchmarkCacheServices.create(new InMemoryStringRedisTemplate(), HutoolCacheSerializer.getInstance());
+        product = Product.of(1L);
+        redisDataJson = this.encodeRedisData();
+        envelope = this.encodeEnvelope();
+    }
+
+    @Benchmark
+    public String encodeRedisData(){
+        return cacheService.getValue(new RedisData(product, LocalDateTime.now().plusMinutes(10)));
+    }
+
+    @Benchmark
+    public Product decodeRedisData(){
+        //解析整个JSON后才能判断是否过期
+        RedisData redisData = cacheService.getResult(redisDataJson, RedisData.class);
+        if (redisData.getExpireTime().isBefore(LocalDateTime.now())){
+            return null;
+        }
+        return cacheService.getResult(redisData.getData(), Product.class);
+    }
+
+    @Benchmark
+    public String encodeEnvelope(){
+        return LogicalExpireEnvelope.encode(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(10), LogicalExpireEnvelope.FLAG_DATA, cacheService.getValue(product));
+    }
+
+    @Benchmark
+    public Product decodeEnvelope(){
+        //只解析头部判断是否过期
+        if (LogicalExpireEnvelope.isExpired(envelope, System.currentTimeMillis())){
+            return null;
+        }
+        return cacheService.getResult(LogicalExpireEnvelope.getPayload(envelope), Product.class);
+    }
+
+    @Benchmark
+    public boolean isExpiredEarly(){
+        return LogicalExpireEnvelope.isExpiredEarly(envelope, System.currentTimeMillis(), 1.0D);
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark;
+
+import io.binghe.redis.benchmark.support.BenchmarkCacheServices;
+import io.binghe.redis.benchmark.support.InMemoryStringRedisTemplate;
+import io.binghe.redis.benchmark.support.Product;
+import io.binghe.redis.cache.distribute.redis.RedisDistributeCacheService;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import io.binghe.redis.cache.distribute.serializer.hutool.HutoolCacheSerializer;
+import io.binghe.redis.cache.distribute.serializer.jackson.JacksonCacheSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description queryWith*缓存策略的端到端基准测试，Redis替换为内存存储，分布式锁替换为进程内的锁，
+ * 测量的是序列化、解析、单飞合并、指标和锁竞争等客户端开销
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class QueryStrategyBenchmark {
+
+    private static final String PASS_THROUGH_PREFIX = "bench:pass:through:";
+    private static final String MUTEX_PREFIX = "bench:mutex:";
+    private static final String LOGICAL_EXPIRE_PREFIX = "bench:logical:expire:";
+    private static final String EARLY_EXPIRE_PREFIX = "bench:early:expire:";
+    private static final int BATCH_SIZE = 20;
+
+    @Param({"hutool", "jackson"})
+    private String serializer;
+
+    @Param({"1000"})
+    private int keyCount;
+
+    private InMemoryStringRedisTemplate redisTemplate;
+    private RedisDistributeCacheService cacheService;
+    private Map<Long, Product> database;
+    private Function<Long, Product> dbFallback;
+    private Function<Collection<Long>, Map<Long, Product>> batchDbFallback;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        CacheSerializer cacheSerializer = "jackson".equals(serializer) ? new JacksonCacheSerializer() : HutoolCacheSerializer.getInstance();
+        redisTemplate = new InMemoryStringRedisTemplate();
+        cacheService = BenchmarkCacheServices.create(redisTemplate, cacheSerializer);
+        database = new HashMap<>(keyCount * 2);
+        for (long id = 0; id < keyCount; id++){
+            database.put(id, Product.of(id));
+        }
+        dbFallback = database::get;
+        batchDbFallback = (ids) -> {
+            Map<Long, Product> result = new HashMap<>(ids.size() * 2);
+            for (Long id : ids){
+                Product product = database.get(id);
+                if (product != null){
+                    result.put(id, product);
+                }
+            }
+            return result;
+        };
+        //预热缓存，基准测试测量命中路径
+        for (long id = 0; id < keyCount; id++){
+            Product product = database.get(id);
+            cacheService.set(cacheService.getKey(PASS_THROUGH_PREFIX, id), product, 1L, TimeUnit.HOURS);
+            cacheService.set(cacheService.getKey(MUTEX_PREFIX, id), product, 1L, TimeUnit.HOURS);
+            cacheService.setWithLogicalExpire(cacheService.getKey(LOGICAL_EXPIRE_PREFIX, id), product, 1L, TimeUnit.HOURS);
+            cacheService.queryWithEarlyExpire(EARLY_EXPIRE_PREFIX, id, Product.class, dbFallback, 1L, TimeUnit.HOURS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        redisTemplate.clear();
+        //逻辑过期策略在重建线程池中重建缓存
+        BenchmarkCacheServices.shutdown(cacheService);
+    }
+
+    @Benchmark
+    public Product passThroughHit(){
+        return cacheService.queryWithPassThrough(PASS_THROUGH_PREFIX, this.nextId(), Product.class, dbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Product passThroughNullHit(){
+        //数据库不存在的数据，命中缓存的空数据
+        return cacheService.queryWithPassThrough(PASS_THROUGH_PREFIX, -1L - this.nextId(), Product.class, dbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Product passThroughMiss(){
+        //删除后再查询，包含查询数据库和写回缓存的开销
+        long id = this.nextId();
+        cacheService.delete(cacheService.getKey(PASS_THROUGH_PREFIX, id));
+        return cacheService.queryWithPassThrough(PASS_THROUGH_PREFIX, id, Product.class, dbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Map<Long, Product> multiQueryWithPassThrough(){
+        List<Long> ids = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++){
+            ids.add(this.nextId());
+        }
+        return cacheService.multiQueryWithPassThrough(PASS_THROUGH_PREFIX, ids, Product.class, batchDbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Product mutexHit(){
+        return cacheService.queryWithMutex(MUTEX_PREFIX, this.nextId(), Product.class, dbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Product mutexMiss(){
+        //删除后再查询，多个线程可能同时竞争同一个key的锁
+        long id = this.nextId();
+        cacheService.delete(cacheService.getKey(MUTEX_PREFIX, id));
+        return cacheService.queryWithMutex(MUTEX_PREFIX, id, Product.class, dbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Product logicalExpireHit(){
+        return cacheService.queryWithLogicalExpire(LOGICAL_EXPIRE_PREFIX, this.nextId(), Product.class, dbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Product earlyExpireHit(){
+        return cacheService.queryWithEarlyExpire(EARLY_EXPIRE_PREFIX, this.nextId(), Product.class, dbFallback, 1L, TimeUnit.HOURS);
+    }
+
+    private long nextId(){
+        return ThreadLocalRandom.current().nextInt(keyCount);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark;
+
+import io.binghe.redis.benchmark.support.Product;
+import io.binghe.redis.cache.distribute.conversion.TypeConversion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description TypeConversion.isSimpleType的基准测试，getKey、getValue和getResult都会调用
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeConversionBenchmark {
+
+    private Object longValue;
+    private Object simpleString;
+    private Object jsonString;
+    private Object object;
+    private Object localDateTime;
+
+    @Setup
+    public void setup(){
+        longValue = 1234567890L;
+        simpleString = "product-1234567890";
+        jsonString = "{\"id\":1,\"name\":\"product-1\",\"price\":0.99,\"tags\":[\"tag-1\",\"tag-2\"]}";
+        object = Product.of(1L);
+        localDateTime = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public boolean longValue(){
+        return TypeConversion.isSimpleType(longValue);
+    }
+
+    @Benchmark
+    public boolean simpleString(){
+        return TypeConversion.isSimpleType(simpleString);
+    }
+
+    @Benchmark
+    public boolean jsonString(){
+        return TypeConversion.isSimpleType(jsonString);
+    }
+
+    @Benchmark
+    public boolean object(){
+        return TypeConversion.isSimpleType(object);
+    }
+
+    @Benchmark
+    public boolean localDateTime(){
+        return TypeConversion.isSimpleType(localDateTime);
+    }
+
+    @Benchmark
+    public boolean simpleClass(){
+        return TypeConversion.isSimpleClass(Long.class);
+    }
+}
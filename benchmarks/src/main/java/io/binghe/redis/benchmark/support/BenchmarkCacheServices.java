@@ -0,0 +1,122 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark.support;
+
+import io.binghe.redis.cache.distribute.compress.CacheValueCompressor;
+import io.binghe.redis.cache.distribute.key.CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.key.md5.Md5CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.metrics.CacheMetrics;
+import io.binghe.redis.cache.distribute.rebuild.CacheRebuildExecutor;
+import io.binghe.redis.cache.distribute.redis.CacheValueCodec;
+import io.binghe.redis.cache.distribute.redis.RedisDistributeCacheService;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import io.binghe.redis.config.CacheCompressionProperties;
+import io.binghe.redis.config.CacheRebuildExecutorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 不启动Spring容器，按照字段注入的方式组装基于内存存储的RedisDistributeCacheService
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public final class BenchmarkCacheServices {
+
+    private BenchmarkCacheServices() {
+    }
+
+    /**
+     * 创建缓存服务
+     * @param redisTemplate 内存存储
+     * @param cacheSerializer 缓存序列化方式
+     * @return 缓存服务
+     */
+    public static RedisDistributeCacheService create(InMemoryStringRedisTemplate redisTemplate, CacheSerializer cacheSerializer){
+        return create(redisTemplate, cacheSerializer, Md5CacheKeyGenerator.getInstance());
+    }
+
+    /**
+     * 创建缓存服务
+     * @param redisTemplate 内存存储
+     * @param cacheSerializer 缓存序列化方式
+     * @param cacheKeyGenerator 缓存key生成方式
+     * @return 缓存服务
+     */
+    public static RedisDistributeCacheService create(InMemoryStringRedisTemplate redisTemplate, CacheSerializer cacheSerializer, CacheKeyGenerator cacheKeyGenerator){
+        RedisDistributeCacheService cacheService = new RedisDistributeCacheService();
+        inject(cacheService, "redisTemplate", redisTemplate);
+        inject(cacheService, "distributedLockFactory", new LocalDistributedLockFactory());
+        inject(cacheService, "cacheSerializer", cacheSerializer);
+        inject(cacheService, "cacheKeyGenerator", cacheKeyGenerator);
+        inject(cacheService, "cacheValueCodec", createCodec(cacheSerializer));
+        inject(cacheService, "cacheMetrics", createMetrics());
+        inject(cacheService, "cacheRebuildExecutor", createRebuildExecutor());
+        inject(cacheService, "rebuildMaxWaitMillis", 3000L);
+        inject(cacheService, "earlyExpireBeta", 1.0D);
+        inject(cacheService, "scanCount", 1000);
+        return cacheService;
+    }
+
+    private static CacheValueCodec createCodec(CacheSerializer cacheSerializer){
+        CacheValueCodec codec = new CacheValueCodec();
+        inject(codec, "cacheSerializer", cacheSerializer);
+        inject(codec, "cacheValueCompressor", createCompressor());
+        return codec;
+    }
+
+    private static CacheValueCompressor createCompressor(){
+        //默认不开启压缩，与application.yml保持一致
+        CacheValueCompressor compressor = new CacheValueCompressor();
+        inject(compressor, "cacheCompressionProperties", new CacheCompressionProperties());
+        compressor.init();
+        return compressor;
+    }
+
+    /**
+     * 关闭缓存服务的重建线程池
+     */
+    public static void shutdown(RedisDistributeCacheService cacheService){
+        Field field = ReflectionUtils.findField(RedisDistributeCacheService.class, "cacheRebuildExecutor");
+        ReflectionUtils.makeAccessible(field);
+        ((CacheRebuildExecutor) ReflectionUtils.getField(field, cacheService)).destroy();
+    }
+
+    private static CacheRebuildExecutor createRebuildExecutor(){
+        CacheRebuildExecutor executor = new CacheRebuildExecutor();
+        inject(executor, "cacheRebuildExecutorProperties", new CacheRebuildExecutorProperties());
+        executor.init();
+        return executor;
+    }
+
+    private static CacheMetrics createMetrics(){
+        CacheMetrics cacheMetrics = new CacheMetrics();
+        inject(cacheMetrics, "meterRegistry", new SimpleMeterRegistry());
+        return cacheMetrics;
+    }
+
+    private static void inject(Object target, String name, Object value){
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null){
+            throw new IllegalArgumentException(target.getClass().getName() + " has no field " + name);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark.support;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于内存的StringRedisTemplate，只实现缓存读写路径用到的命令，
+ * 排除网络开销后测量序列化、解析和缓存策略本身的耗时
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class InMemoryStringRedisTemplate extends StringRedisTemplate {
+
+    //key到数据的映射
+    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, String> valueOperations = this.createValueOperations();
+
+    public InMemoryStringRedisTemplate() {
+        //不连接Redis，跳过afterPropertiesSet
+    }
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return store.remove(key) != null;
+    }
+
+    @Override
+    public Long delete(Collection<String> keys) {
+        long count = 0;
+        for (String key : keys){
+            if (store.remove(key) != null){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        Entry entry = this.getEntry(key);
+        if (entry == null){
+            return false;
+        }
+        store.put(key, new Entry(entry.value, this.expireAt(timeout, unit)));
+        return true;
+    }
+
+    /**
+     * 清空所有数据
+     */
+    public void clear(){
+        store.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueOperations<String, String> createValueOperations(){
+        return (ValueOperations<String, String>) Proxy.newProxyInstance(ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+            int count = args == null ? 0 : args.length;
+            switch (method.getName()){
+                case "get":
+                    if (count == 1){
+                        Entry entry = this.getEntry((String) args[0]);
+                        return entry == null ? null : entry.value;
+                    }
+                    break;
+                case "set":
+                    if (count == 2){
+                        store.put((String) args[0], new Entry((String) args[1], Long.MAX_VALUE));
+                        return null;
+                    }
+                    if (count == 4 && args[3] instanceof TimeUnit){
+                        store.put((String) args[0], new Entry((String) args[1], this.expireAt((Long) args[2], (TimeUnit) args[3])));
+                        return null;
+                    }
+                    break;
+                case "setIfAbsent":
+                    if (count == 2){
+                        return this.setIfAbsent((String) args[0], (String) args[1], Long.MAX_VALUE);
+                    }
+                    if (count == 4){
+                        return this.setIfAbsent((String) args[0], (String) args[1], this.expireAt((Long) args[2], (TimeUnit) args[3]));
+                    }
+                    break;
+                case "multiGet":
+                    Collection<String> keys = (Collection<String>) args[0];
+                    List<String> values = new ArrayList<>(keys.size());
+                    for (String key : keys){
+                        Entry entry = this.getEntry(key);
+                        values.add(entry == null ? null : entry.value);
+                    }
+                    return values;
+                case "getOperations":
+                    return this;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "InMemoryValueOperations";
+                default:
+                    break;
+            }
+            throw new UnsupportedOperationException(method.toString());
+        });
+    }
+
+    private Boolean setIfAbsent(String key, String value, long expireAt){
+        //已过期的数据视为不存在
+        Entry current = this.getEntry(key);
+        if (current != null){
+            return false;
+        }
+        return store.putIfAbsent(key, new Entry(value, expireAt)) == null;
+    }
+
+    private Entry getEntry(String key){
+        Entry entry = store.get(key);
+        if (entry != null && entry.expireAt <= System.currentTimeMillis()){
+            store.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private long expireAt(long timeout, TimeUnit unit){
+        return timeout <= 0 ? Long.MAX_VALUE : System.currentTimeMillis() + unit.toMillis(timeout);
+    }
+
+    private static final class Entry {
+        private final String value;
+        //过期时间戳，单位毫秒
+        private final long expireAt;
+
+        private Entry(String value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
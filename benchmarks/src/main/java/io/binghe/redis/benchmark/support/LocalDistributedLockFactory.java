@@ -0,0 +1,101 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark.support;
+
+import io.binghe.redis.lock.DistributedLock;
+import io.binghe.redis.lock.factory.DistributedLockFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于ReentrantLock的进程内分布式锁，用于在没有Redis的环境下测量缓存策略的耗时
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class LocalDistributedLockFactory implements DistributedLockFactory {
+
+    private final Map<String, LocalDistributedLock> locks = new ConcurrentHashMap<>();
+    private final Map<String, LocalDistributedLock> fairLocks = new ConcurrentHashMap<>();
+
+    @Override
+    public DistributedLock getDistributedLock(String key) {
+        LocalDistributedLock lock = locks.get(key);
+        return lock != null ? lock : locks.computeIfAbsent(key, (k) -> new LocalDistributedLock(false));
+    }
+
+    @Override
+    public DistributedLock getFairLock(String key) {
+        LocalDistributedLock lock = fairLocks.get(key);
+        return lock != null ? lock : fairLocks.computeIfAbsent(key, (k) -> new LocalDistributedLock(true));
+    }
+
+    private static final class LocalDistributedLock implements DistributedLock {
+
+        private final ReentrantLock lock;
+
+        private LocalDistributedLock(boolean fair) {
+            this.lock = new ReentrantLock(fair);
+        }
+
+        @Override
+        public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+            return lock.tryLock(waitTime, unit);
+        }
+
+        @Override
+        public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
+            return lock.tryLock(waitTime, unit);
+        }
+
+        @Override
+        public boolean tryLock() {
+            return lock.tryLock();
+        }
+
+        @Override
+        public void lock(long leaseTime, TimeUnit unit) {
+            lock.lock();
+        }
+
+        @Override
+        public void unlock() {
+            //与Redisson的行为保持一致，只释放当前线程持有的锁
+            if (lock.isHeldByCurrentThread()){
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean isLocked() {
+            return lock.isLocked();
+        }
+
+        @Override
+        public boolean isHeldByThread(long threadId) {
+            return lock.isHeldByCurrentThread() && Thread.currentThread().getId() == threadId;
+        }
+
+        @Override
+        public boolean isHeldByCurrentThread() {
+            return lock.isHeldByCurrentThread();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.benchmark.support;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基准测试使用的业务数据
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class Product {
+
+    private Long id;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private List<String> tags;
+
+    public Product() {
+    }
+
+    public Product(Long id, String name, BigDecimal price, List<String> tags) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.tags = tags;
+    }
+
+    /**
+     * 生成测试数据
+     */
+    public static Product of(long id){
+        List<String> tags = new ArrayList<>(4);
+        for (int i = 0; i < 4; i++){
+            tags.add("tag-" + (id + i));
+        }
+        return new Product(id, "product-" + id, BigDecimal.valueOf(id * 100 + 99, 2), tags);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+}
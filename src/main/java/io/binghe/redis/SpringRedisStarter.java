@@ -15,7 +15,6 @@
  */
 package io.binghe.redis;
 
-import io.binghe.redis.utils.ThreadPoolUtils;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -30,9 +29,6 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class SpringRedisStarter {
 
     public static void main(String[] args) {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            ThreadPoolUtils.shutdown();
-        }));
         SpringApplication.run(SpringRedisStarter.class, args);
     }
 }
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 异步分布式缓存接口，所有方法不阻塞调用线程，Redis访问和数据库查询完成后通过CompletionStage返回结果，
+ * 结果为null时CompletionStage以null完成。注意：后续的回调默认在Redis客户端的IO线程执行，耗时的逻辑需要指定线程池
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public interface AsyncDistributeCacheService {
+
+    /**
+     * 永久缓存
+     * @param key 缓存key
+     * @param value 缓存value
+     * @return 缓存完成
+     */
+    CompletionStage<Void> set(String key, Object value);
+
+    /**
+     * 将数据缓存一段时间
+     * @param key 缓存key
+     * @param value 缓存value
+     * @param timeout 物理缓存的时长
+     * @param unit 物理时间单位
+     * @return 缓存完成
+     */
+    CompletionStage<Void> set(String key, Object value, Long timeout, TimeUnit unit);
+
+    /**
+     * 保存缓存时设置逻辑过期时间
+     * @param key 缓存key
+     * @param value 缓存value
+     * @param timeout 缓存逻辑过期时长
+     * @param unit 缓存逻辑时间单位
+     * @return 缓存完成
+     */
+    CompletionStage<Void> setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit);
+
+    /**
+     * 获取缓存中的数据
+     * @param key 缓存key
+     * @return 缓存value
+     */
+    CompletionStage<String> get(String key);
+
+    /**
+     * 获取缓存数据
+     * @param key 缓存的key
+     * @param targetClass 目标对象Class
+     * @param <T> 泛型
+     * @return 返回的数据
+     */
+    <T> CompletionStage<T> getObject(String key, Class<T> targetClass);
+
+    /**
+     * 根据key列表批量获取value
+     * @param keys key列表
+     * @return value集合
+     */
+    CompletionStage<List<String>> multiGet(Collection<String> keys);
+
+    /**
+     * 删除指定的key
+     * @param key key
+     * @return 删除是否成功
+     */
+    CompletionStage<Boolean> delete(String key);
+
+    /**
+     * 带参数查询对象和简单类型数据，防止缓存穿透
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存的业务标识，
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 异步查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     * @param <ID> 查询数据库参数泛型，也是参数泛型类型
+     */
+    <R, ID> CompletionStage<R> queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，防止缓存穿透
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存的业务标识，
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 异步查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     * @param <ID> 查询数据库参数泛型，也是参数泛型类型
+     */
+    <R, ID> CompletionStage<List<R>> queryWithPassThroughList(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<List<R>>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询数据，按照逻辑过期时间读取缓存中的数据，防止缓存击穿
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存的业务标识，
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 异步查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     * @param <ID> 查询数据库参数泛型，也是参数泛型类型
+     */
+    <R, ID> CompletionStage<R> queryWithLogicalExpire(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，按照逻辑过期时间读取缓存中的数据，防止缓存击穿
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存的业务标识，
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 异步查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     * @param <ID> 查询数据库参数泛型，也是参数泛型类型
+     */
+    <R, ID> CompletionStage<List<R>> queryWithLogicalExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<List<R>>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询数据，按照互斥锁的方式获取缓存数据，防止缓存击穿，未获取到锁时异步等待，不占用线程
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存的业务标识，
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 异步查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     * @param <ID> 查询数据库参数泛型，也是参数泛型类型
+     */
+    <R, ID> CompletionStage<R> queryWithMutex(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，按照互斥锁的方式获取缓存数据，防止缓存击穿，未获取到锁时异步等待，不占用线程
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存的业务标识，
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 异步查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     * @param <ID> 查询数据库参数泛型，也是参数泛型类型
+     */
+    <R, ID> CompletionStage<List<R>> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<List<R>>> dbFallback, Long timeout, TimeUnit unit);
+}
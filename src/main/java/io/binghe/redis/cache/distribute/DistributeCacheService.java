@@ -15,18 +15,21 @@
  */
 package io.binghe.redis.cache.distribute;
 
-import cn.hutool.core.convert.Convert;
-import cn.hutool.core.util.StrUtil;
-import cn.hutool.crypto.digest.MD5;
-import cn.hutool.json.JSONUtil;
-import io.binghe.redis.cache.distribute.conversion.TypeConversion;
+import io.binghe.redis.cache.distribute.key.CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.key.md5.Md5CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import io.binghe.redis.cache.distribute.serializer.hutool.HutoolCacheSerializer;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 /**
  * @author binghe(微信 : hacker_binghe)
@@ -53,6 +56,22 @@ public interface DistributeCacheService {
      */
     void set(String key, Object value, Long timeout, TimeUnit unit);
 
+    /**
+     * 批量缓存数据，通过管道一次性写入，所有数据的缓存时长相同，value为null时缓存空数据，空数据按照空数据的时长缓存
+     * @param values 缓存key到缓存value的映射
+     * @param timeout 物理缓存的时长，必须大于0，否则抛出IllegalArgumentException
+     * @param unit 物理时间单位
+     */
+    void multiSet(Map<String, Object> values, Long timeout, TimeUnit unit);
+
+    /**
+     * 批量缓存数据，通过管道一次性写入，每条数据单独指定缓存时长，value为null时缓存空数据，空数据按照空数据的时长缓存
+     * @param values 缓存key到缓存value的映射
+     * @param timeout 根据缓存key获取缓存时长，必须大于0，任意一条数据不满足时不写入任何数据并抛出IllegalArgumentException
+     * @param unit 物理时间单位
+     */
+    void multiSet(Map<String, Object> values, ToLongFunction<String> timeout, TimeUnit unit);
+
     /**
      * 设置缓存过期
      * @param key 缓存key
@@ -71,6 +90,14 @@ public interface DistributeCacheService {
      */
     void setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit);
 
+    /**
+     * 批量保存逻辑过期数据，通过管道一次性写入，value为null时缓存空数据
+     * @param values 缓存key到缓存value的映射
+     * @param timeout 缓存逻辑过期时长
+     * @param unit 缓存逻辑时间单位
+     */
+    void multiSetWithLogicalExpire(Map<String, Object> values, Long timeout, TimeUnit unit);
+
     /**
      * 获取缓存中的数据
      * @param key 缓存key
@@ -101,6 +128,26 @@ public interface DistributeCacheService {
      */
     Set<String> keys(String pattern);
 
+    /**
+     * 按照游标分批扫描匹配的key，不会像KEYS命令一样阻塞Redis，集群模式下依次扫描所有主节点。
+     * 返回的Stream使用完毕后需要关闭，建议配合try-with-resources使用
+     * @param pattern 正则表达式
+     * @param count 每次SCAN的COUNT参数
+     * @return key的Stream
+     */
+    Stream<String> scan(String pattern, int count);
+
+    /**
+     * 按照前缀批量删除缓存，SCAN扫描到的key按批通过UNLINK删除，并按照限速控制删除速度，避免影响正常请求，
+     * 开启二级缓存时同时移除所有节点的本地缓存
+     * @param keyPrefix 缓存key的前缀，与queryWith*系列方法的keyPrefix相同
+     * @param batchSize 每批扫描和删除的key数量
+     * @param permitsPerSecond 每秒最多删除的key数量，小于等于0时不限速
+     * @param progress 每删除一批后回调累计删除的key数量，可以为null
+     * @return 删除的key数量
+     */
+    long evictByPrefix(String keyPrefix, int batchSize, double permitsPerSecond, LongConsumer progress);
+
     /**
      * 删除指定的key
      * @param key key
@@ -121,6 +168,20 @@ public interface DistributeCacheService {
      */
     <R,ID> R queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit);
 
+    /**
+     * 批量带参数查询对象和简单类型数据，防止缓存穿透，一次批量读取缓存、一次批量查询数据库、一次批量写回缓存
+     * @param keyPrefix 缓存key的前缀
+     * @param ids 缓存的业务标识集合
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 批量查询数据库的Function函数，参数为缓存未命中的业务标识集合，返回业务标识到数据的映射
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 业务标识到业务数据的映射，按照ids的顺序排列，不存在的数据不会出现在结果中
+     * @param <R> 结果泛型
+     * @param <ID> 查询数据库参数泛型，也是参数泛型类型
+     */
+    <R, ID> Map<ID, R> multiQueryWithPassThrough(String keyPrefix, Collection<ID> ids, Class<R> type, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit);
+
     /**
      * 不带参数查询对象和简单类型数据，防止缓存穿透
      * @param keyPrefix key的前缀
@@ -260,6 +321,67 @@ public interface DistributeCacheService {
      */
     <R> List<R> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit);
 
+    /**
+     * 带参数查询数据，按照概率提前过期的方式获取缓存数据，防止大量请求在同一时刻过期后集中重建缓存。
+     * 缓存中同时保存过期时间和重建耗时，越接近过期时间、重建耗时越长，提前重建的概率越大，不需要分布式锁
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存业务标识，也是查询数据库的参数
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 业务数据
+     * @param <R> 结果数据泛型类型
+     * @param <ID> 查询数据库泛型类型，也是参数泛型类型
+     */
+    <R, ID> R queryWithEarlyExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询数据，按照概率提前过期的方式获取缓存数据
+     * @param keyPrefix 缓存key的前缀
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout 缓存时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     */
+    <R> R queryWithEarlyExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，按照概率提前过期的方式获取缓存数据
+     * @param keyPrefix 缓存key的前缀
+     * @param id 缓存业务标识，也是查询数据库的参数
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout 缓存的时长
+     * @param unit 时间单位
+     * @return 业务数据
+     * @param <R> 结果数据泛型类型
+     * @param <ID> 查询数据库泛型类型，也是参数泛型类型
+     */
+    <R, ID> List<R> queryWithEarlyExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询集合数据，按照概率提前过期的方式获取缓存数据
+     * @param keyPrefix 缓存key的前缀
+     * @param type 缓存的实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout 缓存时长
+     * @param unit 时间单位
+     * @return 返回业务数据
+     * @param <R> 结果泛型
+     */
+    <R> List<R> queryWithEarlyExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 获取缓存数据的序列化方式，默认使用Hutool JSON
+     * @return 缓存序列化
+     */
+    default CacheSerializer getCacheSerializer(){
+        return HutoolCacheSerializer.getInstance();
+    }
+
     /**
      * 将对象类型的json字符串转换成泛型类型
      * @param obj 未知类型对象
@@ -268,14 +390,7 @@ public interface DistributeCacheService {
      * @param <R> 泛型
      */
     default <R> R getResult(Object obj, Class<R> type){
-        if (obj == null){
-            return null;
-        }
-        //简单类型
-        if (TypeConversion.isSimpleType(obj)){
-            return Convert.convert(type, obj);
-        }
-        return JSONUtil.toBean(JSONUtil.toJsonStr(obj), type);
+        return getCacheSerializer().deserialize(obj, type);
     }
 
     /**
@@ -286,10 +401,7 @@ public interface DistributeCacheService {
      * @param <R> 泛型
      */
     default <R> List<R> getResultList(String str, Class<R> type){
-        if (StrUtil.isEmpty(str)){
-            return null;
-        }
-        return JSONUtil.toList(JSONUtil.parseArray(str), type);
+        return getCacheSerializer().deserializeList(str, type);
     }
 
     /**
@@ -302,27 +414,22 @@ public interface DistributeCacheService {
     }
 
     /**
-     * 不确定参数类型的情况下，使用MD5计算参数的拼接到Redis中的唯一Key
+     * 获取缓存key的生成方式，默认序列化成JSON后计算MD5摘要，与之前版本生成的key一致
+     * @return 缓存key生成
+     */
+    default CacheKeyGenerator getCacheKeyGenerator(){
+        return Md5CacheKeyGenerator.getInstance();
+    }
+
+    /**
+     * 不确定参数类型的情况下，计算参数的摘要拼接到Redis中的唯一Key
      * @param keyPrefix 缓存key的前缀
      * @param id 泛型参数
      * @return 拼接好的缓存key
      * @param <ID> 参数泛型类型
      */
     default <ID> String getKey(String keyPrefix, ID id){
-        if (id == null){
-            return keyPrefix;
-        }
-        String key = "";
-        //简单数据类型与简单字符串
-        if (TypeConversion.isSimpleType(id)){
-            key = StrUtil.toString(id);
-        }else {
-            key = MD5.create().digestHex(JSONUtil.toJsonStr(id));
-        }
-        if (StrUtil.isEmpty(key)){
-            key = "";
-        }
-        return keyPrefix.concat(key);
+        return getCacheKeyGenerator().generate(keyPrefix, id);
     }
 
     /**
@@ -331,6 +438,6 @@ public interface DistributeCacheService {
      * @return 处理好的字符串
      */
     default String getValue(Object value){
-        return TypeConversion.isSimpleType(value) ? String.valueOf(value) : JSONUtil.toJsonStr(value);
+        return getCacheSerializer().serialize(value);
     }
 }
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.compress;
+
+import cn.hutool.core.util.StrUtil;
+import io.binghe.redis.config.CacheCompressionProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 缓存数据压缩，超过阈值的数据压缩后保存，读取时根据头部标识透明解压
+ * 压缩后的格式：第1位为压缩标识，第2位为压缩算法，之后为Base64编码的压缩数据
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+public class CacheValueCompressor {
+    //压缩标识，JSON和逻辑过期数据都不会以该字符开头
+    private static final char MARKER = '\u001F';
+    //压缩算法：Deflate
+    private static final char CODEC_DEFLATE = 'D';
+    //头部长度
+    private static final int HEADER_LENGTH = 2;
+    //压缩和解压的缓冲区大小
+    private static final int BUFFER_SIZE = 8192;
+
+    //对象池的容量
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    //Deflater和Inflater持有堆外内存，通过有界对象池复用，池满时立即调用end()释放，不随线程数量增长
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    @Autowired
+    private CacheCompressionProperties cacheCompressionProperties;
+
+    //按照前缀长度倒序排列，保证最长前缀优先匹配
+    private final List<CacheCompressionProperties.Region> regions = new ArrayList<>();
+
+    @PostConstruct
+    public void init(){
+        for (CacheCompressionProperties.Region region : cacheCompressionProperties.getRegions()){
+            if (StrUtil.isNotEmpty(region.getKeyPrefix())){
+                regions.add(region);
+            }
+        }
+        regions.sort(Comparator.comparingInt((CacheCompressionProperties.Region r) -> r.getKeyPrefix().length()).reversed());
+    }
+
+    @PreDestroy
+    public void destroy(){
+        Deflater deflater;
+        while ((deflater = deflaters.poll()) != null){
+            deflater.end();
+        }
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null){
+            inflater.end();
+        }
+    }
+
+    /**
+     * 按照key所在区域的阈值压缩数据，压缩后没有变小时返回原数据
+     * @param key 缓存key
+     * @param value 要缓存的字符串
+     * @return 压缩后的字符串或者原字符串
+     */
+    public String compress(String key, String value){
+        if (!cacheCompressionProperties.isEnabled() || value == null || key == null){
+            return value;
+        }
+        CacheCompressionProperties.Region region = this.match(key);
+        if (region == null || value.length() < region.getThreshold()){
+            return value;
+        }
+        byte[] compressed = this.deflate(value.getBytes(StandardCharsets.UTF_8));
+        String encoded = Base64.getEncoder().encodeToString(compressed);
+        if (encoded.length() + HEADER_LENGTH >= value.length()){
+            return value;
+        }
+        return new StringBuilder(encoded.length() + HEADER_LENGTH).append(MARKER).append(CODEC_DEFLATE).append(encoded).toString();
+    }
+
+    /**
+     * 解压数据，未压缩的数据原样返回
+     * @param value 缓存中的字符串
+     * @return 解压后的字符串
+     */
+    public String decompress(String value){
+        if (!this.isCompressed(value)){
+            return value;
+        }
+        byte[] compressed = Base64.getDecoder().decode(value.substring(HEADER_LENGTH));
+        return new String(this.inflate(compressed), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 是否为压缩后的数据
+     */
+    public boolean isCompressed(String value){
+        return value != null && value.length() > HEADER_LENGTH && value.charAt(0) == MARKER && value.charAt(1) == CODEC_DEFLATE;
+    }
+
+    private byte[] deflate(byte[] input){
+        Deflater deflater = deflaters.poll();
+        if (deflater == null){
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[Math.min(BUFFER_SIZE, Math.max(64, input.length))];
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            while (!deflater.finished()){
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)){
+                deflater.end();
+            }
+        }
+    }
+
+    private byte[] inflate(byte[] input){
+        Inflater inflater = inflaters.poll();
+        if (inflater == null){
+            inflater = new Inflater();
+        }
+        try {
+            inflater.setInput(input);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            while (!inflater.finished()){
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())){
+                    throw new IllegalStateException("corrupted compressed cache value");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException(e);
+        }finally {
+            inflater.reset();
+            if (!inflaters.offer(inflater)){
+                inflater.end();
+            }
+        }
+    }
+
+    private CacheCompressionProperties.Region match(String key){
+        for (CacheCompressionProperties.Region region : regions){
+            if (key.startsWith(region.getKeyPrefix())){
+                return region;
+            }
+        }
+        return null;
+    }
+}
@@ -16,35 +16,133 @@
 package io.binghe.redis.cache.distribute.conversion;
 
 import cn.hutool.core.convert.Convert;
-import cn.hutool.core.thread.lock.LockUtil;
-import cn.hutool.json.JSONUtil;
+import cn.hutool.core.util.CharUtil;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
 import java.util.Collection;
 
 /**
  * @author binghe(微信 : hacker_binghe)
  * @version 1.0.0
- * @description 类型转换
+ * @description 类型转换，按照Class缓存类型分类，字符串只检查首尾字符判断是否为JSON，不再解析
  * @github https://github.com/binghe001
  * @copyright 公众号: 冰河技术
  */
 public class TypeConversion {
+
+    /**
+     * 类型分类
+     */
+    private enum Kind {
+        //字符串，需要判断是否为JSON
+        STRING,
+        //基本类型及其包装类型
+        PRIMITIVE,
+        //枚举
+        ENUM,
+        //BigDecimal和BigInteger
+        BIG_NUMBER,
+        //java.time中的日期时间类型
+        TEMPORAL,
+        //集合
+        COLLECTION,
+        //其他对象
+        OBJECT
+    }
+
+    //按照Class缓存的类型分类
+    private static final ClassValue<Kind> KINDS = new ClassValue<Kind>() {
+        @Override
+        protected Kind computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+
+    //按照Class缓存的java.time类型的解析方法
+    private static final ClassValue<Method> TEMPORAL_PARSERS = new ClassValue<Method>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            return findParser(type);
+        }
+    };
+
     public static <T> boolean isCollectionType(T t){
         return t instanceof Collection;
     }
 
     /**
-     * 简单字符串和基本类型统称为简单类型
+     * 简单字符串、基本类型、枚举、BigDecimal、BigInteger和java.time中的日期时间类型统称为简单类型
      */
     public static <T> boolean isSimpleType(T t){
-        return isSimpleString(t) || isInt(t) || isLong(t) || isDouble(t) || isFloat(t) || isChar(t) || isBoolean(t) || isShort(t) || isByte(t);
+        if (t == null){
+            return false;
+        }
+        switch (KINDS.get(t.getClass())){
+            case STRING:
+                return !isJsonString((String) t);
+            case COLLECTION:
+            case OBJECT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 简单字符串和基本类型，与之前版本的简单类型保持一致
+     */
+    public static <T> boolean isBasicType(T t){
+        if (t == null){
+            return false;
+        }
+        Kind kind = KINDS.get(t.getClass());
+        return kind == Kind.PRIMITIVE || (kind == Kind.STRING && !isJsonString((String) t));
+    }
+
+    /**
+     * 调用方已经明确类型时只按照类型判断，字符串视为简单类型，不检查内容
+     * @param type 类型
+     * @return 是否为简单类型
+     */
+    public static boolean isSimpleClass(Class<?> type){
+        if (type == null){
+            return false;
+        }
+        Kind kind = KINDS.get(type);
+        return kind != Kind.COLLECTION && kind != Kind.OBJECT;
     }
 
     public static <T> boolean isSimpleString(T t){
-        if (t == null || !isString(t)){
+        if (!isString(t)){
+            return false;
+        }
+        return !isJsonString((String) t);
+    }
+
+    /**
+     * 只检查去掉首尾空白字符后的首尾字符，与JSONUtil.isJson的判断规则一致，不截取字符串
+     */
+    public static boolean isJsonString(String str){
+        int begin = 0;
+        int end = str.length() - 1;
+        while (begin <= end && CharUtil.isBlankChar(str.charAt(begin))){
+            begin++;
+        }
+        while (end > begin && CharUtil.isBlankChar(str.charAt(end))){
+            end--;
+        }
+        if (begin >= end){
             return false;
         }
-        return !JSONUtil.isJson(t.toString());
+        char first = str.charAt(begin);
+        char last = str.charAt(end);
+        return (first == '{' && last == '}') || (first == '[' && last == ']');
     }
 
     public static <T> boolean isString(T t) {
@@ -88,6 +186,93 @@ public class TypeConversion {
     }
 
     public static <R> R convertor(String str, Class<R> type){
-        return Convert.convert(type, str);
+        return convert(str, type);
+    }
+
+    /**
+     * 将简单类型的值转换成目标类型，java.time中的日期时间类型按照ISO格式解析
+     * @param value 简单类型的值
+     * @param type 目标类型
+     * @return 目标类型的值
+     * @param <R> 泛型
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R convert(Object value, Class<R> type){
+        if (value == null || type.isInstance(value)){
+            return (R) value;
+        }
+        if (value instanceof String && type != String.class){
+            String str = unquote((String) value);
+            if (KINDS.get(type) == Kind.TEMPORAL){
+                Method parser = TEMPORAL_PARSERS.get(type);
+                if (parser != null){
+                    return (R) parseTemporal(parser, str);
+                }
+            }
+            return Convert.convert(type, str);
+        }
+        return Convert.convert(type, value);
+    }
+
+    //去掉JSON序列化字符串时添加的双引号
+    private static String unquote(String str){
+        int length = str.length();
+        return length >= 2 && str.charAt(0) == '"' && str.charAt(length - 1) == '"' ? str.substring(1, length - 1) : str;
+    }
+
+    private static Object parseTemporal(Method parser, String str){
+        try {
+            return parser.invoke(null, str);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    private static Kind classify(Class<?> type){
+        if (type == String.class){
+            return Kind.STRING;
+        }
+        if (type.isPrimitive() || type == Integer.class || type == Long.class || type == Double.class || type == Float.class
+                || type == Character.class || type == Boolean.class || type == Short.class || type == Byte.class){
+            return Kind.PRIMITIVE;
+        }
+        if (type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum())){
+            return Kind.ENUM;
+        }
+        if (type == BigDecimal.class || type == BigInteger.class){
+            return Kind.BIG_NUMBER;
+        }
+        if (isTemporal(type)){
+            return Kind.TEMPORAL;
+        }
+        if (Collection.class.isAssignableFrom(type)){
+            return Kind.COLLECTION;
+        }
+        return Kind.OBJECT;
+    }
+
+    //只包含java.time包中的类型，例如LocalDateTime、Instant、Duration和ZoneId
+    private static boolean isTemporal(Class<?> type){
+        Package pkg = type.getPackage();
+        if (pkg == null || !"java.time".equals(pkg.getName())){
+            return false;
+        }
+        return TemporalAccessor.class.isAssignableFrom(type) || TemporalAmount.class.isAssignableFrom(type) || ZoneId.class.isAssignableFrom(type);
+    }
+
+    private static Method findParser(Class<?> type){
+        try {
+            return type.getMethod("parse", CharSequence.class);
+        } catch (NoSuchMethodException e) {
+            //ZoneId和ZoneOffset没有parse方法
+            try {
+                return type.getMethod("of", String.class);
+            } catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
     }
 }
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.data;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 逻辑过期数据的紧凑存储格式，替代JSON格式的RedisData
+ * 格式为固定长度的头部加上序列化后的业务数据：
+ * 第1位为格式标识，第2位为版本号，第3位为数据标识，第4~19位为16位十六进制的过期时间戳（毫秒），之后为业务数据。
+ * 判断是否过期只需要解析头部，未过期的数据只需要解析一次业务数据。
+ * 版本2在过期时间之后增加8位十六进制的重建耗时（毫秒），用于概率提前过期
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public final class LogicalExpireEnvelope {
+    //格式标识，JSON不会以该字符开头，用于区分旧的RedisData格式
+    public static final char MAGIC = '\u001E';
+    //当前版本
+    public static final char VERSION = '1';
+    //保存重建耗时的版本
+    public static final char VERSION_DELTA = '2';
+    //数据标识：存在业务数据
+    public static final char FLAG_DATA = 'D';
+    //数据标识：数据库不存在数据
+    public static final char FLAG_NULL = 'N';
+    //数据标识：数据库中的集合数据为空
+    public static final char FLAG_EMPTY = 'E';
+    //头部长度
+    public static final int HEADER_LENGTH = 19;
+    //保存重建耗时的头部长度
+    public static final int DELTA_HEADER_LENGTH = 27;
+
+    private static final int VERSION_INDEX = 1;
+    private static final int FLAG_INDEX = 2;
+    private static final int EXPIRE_INDEX = 3;
+    private static final int DELTA_INDEX = 19;
+    //重建耗时的最大值，8位十六进制
+    private static final long MAX_DELTA_MILLIS = 0xFFFFFFFFL;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private LogicalExpireEnvelope() {
+    }
+
+    /**
+     * 生成逻辑过期数据
+     * @param expireMillis 逻辑过期的时间戳，单位毫秒
+     * @param flag 数据标识
+     * @param payload 序列化后的业务数据，只有数据标识为FLAG_DATA时才有效
+     * @return 存储到Redis中的字符串
+     */
+    public static String encode(long expireMillis, char flag, String payload){
+        String data = flag == FLAG_DATA && payload != null ? payload : "";
+        StringBuilder builder = new StringBuilder(HEADER_LENGTH + data.length());
+        builder.append(MAGIC).append(VERSION).append(flag);
+        appendHex(builder, expireMillis, 16);
+        return builder.append(data).toString();
+    }
+
+    /**
+     * 生成保存重建耗时的逻辑过期数据
+     * @param expireMillis 过期的时间戳，单位毫秒
+     * @param deltaMillis 重建缓存的耗时，单位毫秒
+     * @param flag 数据标识
+     * @param payload 序列化后的业务数据，只有数据标识为FLAG_DATA时才有效
+     * @return 存储到Redis中的字符串
+     */
+    public static String encodeWithDelta(long expireMillis, long deltaMillis, char flag, String payload){
+        String data = flag == FLAG_DATA && payload != null ? payload : "";
+        StringBuilder builder = new StringBuilder(DELTA_HEADER_LENGTH + data.length());
+        builder.append(MAGIC).append(VERSION_DELTA).append(flag);
+        appendHex(builder, expireMillis, 16);
+        appendHex(builder, Math.max(0, Math.min(deltaMillis, MAX_DELTA_MILLIS)), 8);
+        return builder.append(data).toString();
+    }
+
+    /**
+     * 是否为当前的存储格式
+     */
+    public static boolean isEnvelope(String str){
+        if (str == null || str.length() < HEADER_LENGTH || str.charAt(0) != MAGIC){
+            return false;
+        }
+        return str.charAt(VERSION_INDEX) != VERSION_DELTA || str.length() >= DELTA_HEADER_LENGTH;
+    }
+
+    /**
+     * 获取数据标识
+     */
+    public static char getFlag(String str){
+        return str.charAt(FLAG_INDEX);
+    }
+
+    /**
+     * 只解析头部获取逻辑过期的时间戳
+     */
+    public static long getExpireMillis(String str){
+        return parseHex(str, EXPIRE_INDEX, HEADER_LENGTH);
+    }
+
+    /**
+     * 获取重建缓存的耗时，未保存重建耗时的数据返回0
+     */
+    public static long getDeltaMillis(String str){
+        return str.charAt(VERSION_INDEX) == VERSION_DELTA ? parseHex(str, DELTA_INDEX, DELTA_HEADER_LENGTH) : 0;
+    }
+
+    /**
+     * 是否已经逻辑过期
+     */
+    public static boolean isExpired(String str, long nowMillis){
+        return getExpireMillis(str) <= nowMillis;
+    }
+
+    /**
+     * 按照XFetch算法判断是否提前过期：now - delta * beta * ln(random) >= expire，random在(0, 1]之间，
+     * 越接近过期时间、重建耗时越长，提前过期的概率越大，已经过期的数据一定返回true
+     * @param nowMillis 当前时间戳，单位毫秒
+     * @param beta 提前过期的系数，大于1时更倾向于提前重建，小于1时更倾向于推迟重建
+     */
+    public static boolean isExpiredEarly(String str, long nowMillis, double beta){
+        double random = 1.0D - ThreadLocalRandom.current().nextDouble();
+        return nowMillis - getDeltaMillis(str) * beta * Math.log(random) >= getExpireMillis(str);
+    }
+
+    /**
+     * 获取序列化后的业务数据
+     */
+    public static String getPayload(String str){
+        return str.substring(str.charAt(VERSION_INDEX) == VERSION_DELTA ? DELTA_HEADER_LENGTH : HEADER_LENGTH);
+    }
+
+    private static void appendHex(StringBuilder builder, long value, int digits){
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4){
+            builder.append(HEX_DIGITS[(int) ((value >>> shift) & 0xF)]);
+        }
+    }
+
+    private static long parseHex(String str, int beginIndex, int endIndex){
+        long value = 0;
+        for (int i = beginIndex; i < endIndex; i++){
+            value = (value << 4) | Character.digit(str.charAt(i), 16);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.hotkey;
+
+import io.binghe.redis.cache.distribute.key.murmur3.Murmur3Hash;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description Count-Min Sketch，使用固定大小的计数器数组估算每个key的访问次数，估算值只会偏大不会偏小。
+ * 每一行的位置由key的MurmurHash3摘要的高低32位按照h1 + i * h2计算，String.hashCode相同的key在不同的行仍然分散
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class CountMinSketch {
+    //摘要的种子
+    private static final long SEED = 0x636d73L;
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param depth 哈希函数的数量
+     * @param width 每个哈希函数对应的计数器数量，向上取整为2的幂
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = Math.max(1, depth);
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(this.depth * this.width);
+    }
+
+    /**
+     * 访问次数加1
+     * @return 加1后的估算值
+     */
+    public long increment(String key){
+        long hash = Murmur3Hash.hash64(key, SEED);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++){
+            min = Math.min(min, counters.incrementAndGet(i * width + ((h1 + i * h2) & mask)));
+        }
+        return min;
+    }
+
+    /**
+     * 估算访问次数
+     */
+    public long estimate(String key){
+        long hash = Murmur3Hash.hash64(key, SEED);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++){
+            min = Math.min(min, counters.get(i * width + ((h1 + i * h2) & mask)));
+        }
+        return min;
+    }
+
+    /**
+     * 清空所有计数器
+     */
+    public void clear(){
+        for (int i = 0; i < counters.length(); i++){
+            counters.set(i, 0);
+        }
+    }
+}
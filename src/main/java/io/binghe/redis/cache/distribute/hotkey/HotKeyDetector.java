@@ -0,0 +1,203 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.hotkey;
+
+import io.binghe.redis.cache.local.LocalCacheService;
+import io.binghe.redis.cache.local.guava.impl.GuavaLocalCacheService;
+import io.binghe.redis.config.HotKeyProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 热点key探测，使用当前窗口和上一个窗口两个Count-Min Sketch近似滑动窗口统计访问次数，
+ * 超过阈值的key自动复制到短时过期的本地缓存，热点key的数量有上限，内存占用固定
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.hot-key.enabled", havingValue = "true")
+public class HotKeyDetector {
+
+    private final Logger logger = LoggerFactory.getLogger(HotKeyDetector.class);
+
+    @Autowired
+    private HotKeyProperties hotKeyProperties;
+
+    //当前窗口的访问次数
+    private volatile CountMinSketch current;
+    //上一个窗口的访问次数
+    private volatile CountMinSketch previous;
+    //当前窗口的开始时间
+    private volatile long windowStart;
+    //热点key到最近一个完整窗口访问次数的映射
+    private final Map<String, Long> hotKeys = new ConcurrentHashMap<>();
+    //热点key的本地副本
+    private LocalCacheService<String, String> localReplica;
+    //切换窗口的线程
+    private final ScheduledExecutorService rotateExecutor = Executors.newSingleThreadScheduledExecutor((r) -> {
+        Thread thread = new Thread(r, "hot-key-detector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init(){
+        this.current = new CountMinSketch(hotKeyProperties.getSketchDepth(), hotKeyProperties.getSketchWidth());
+        this.previous = new CountMinSketch(hotKeyProperties.getSketchDepth(), hotKeyProperties.getSketchWidth());
+        this.windowStart = System.currentTimeMillis();
+        this.localReplica = new GuavaLocalCacheService<>(hotKeyProperties.getCapacity(), hotKeyProperties.getLocalExpireMillis(), TimeUnit.MILLISECONDS);
+        long windowMillis = hotKeyProperties.getWindowMillis();
+        rotateExecutor.scheduleAtFixedRate(this::rotate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy(){
+        rotateExecutor.shutdown();
+    }
+
+    /**
+     * 记录一次访问
+     * @param key 缓存key
+     * @return 是否为热点key
+     */
+    public boolean record(String key){
+        long count = current.increment(key);
+        long threshold = hotKeyProperties.getThreshold();
+        if (count < threshold){
+            //按照当前窗口已经过去的比例折算上一个窗口的访问次数
+            long windowMillis = hotKeyProperties.getWindowMillis();
+            long remaining = Math.max(0, windowMillis - (System.currentTimeMillis() - windowStart));
+            count += previous.estimate(key) * remaining / windowMillis;
+        }
+        if (count < threshold){
+            return !hotKeys.isEmpty() && hotKeys.containsKey(key);
+        }
+        if (!hotKeys.containsKey(key)){
+            this.promote(key, count);
+        }
+        return true;
+    }
+
+    /**
+     * 获取热点key的本地副本
+     */
+    public String getIfPresent(String key){
+        return hotKeys.isEmpty() ? null : localReplica.getIfPresent(key);
+    }
+
+    /**
+     * 保存热点key的本地副本
+     */
+    public void put(String key, String value){
+        localReplica.put(key, value);
+    }
+
+    /**
+     * 数据变更时移除本地副本
+     */
+    public void evict(String key){
+        if (!hotKeys.isEmpty()){
+            localReplica.remove(key);
+        }
+    }
+
+    /**
+     * 移除指定前缀的本地副本
+     */
+    public void evictByPrefix(String keyPrefix){
+        localReplica.removeIf((key) -> key.startsWith(keyPrefix));
+    }
+
+    /**
+     * 获取访问次数最多的热点key
+     * @param n 最多返回的数量
+     * @return 热点key到最近一个完整窗口访问次数的映射，按照访问次数倒序排列
+     */
+    public List<Map.Entry<String, Long>> topKeys(int n){
+        List<Map.Entry<String, Long>> result = new ArrayList<>(hotKeys.size());
+        hotKeys.forEach((key, count) -> result.add(new AbstractMap.SimpleImmutableEntry<>(key, count)));
+        result.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+        return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+    }
+
+    /**
+     * 新的热点key，超过数量上限时替换访问次数最少的热点key
+     */
+    private synchronized void promote(String key, long count){
+        if (hotKeys.containsKey(key)){
+            return;
+        }
+        if (hotKeys.size() >= hotKeyProperties.getCapacity()){
+            Map.Entry<String, Long> coldest = null;
+            for (Map.Entry<String, Long> entry : hotKeys.entrySet()){
+                if (coldest == null || entry.getValue() < coldest.getValue()){
+                    coldest = entry;
+                }
+            }
+            if (coldest == null || coldest.getValue() >= count){
+                return;
+            }
+            this.demote(coldest.getKey());
+        }
+        hotKeys.put(key, count);
+        logger.info("hot key detected|{}|{}", key, count);
+    }
+
+    private void demote(String key){
+        hotKeys.remove(key);
+        localReplica.remove(key);
+    }
+
+    /**
+     * 切换窗口，并按照刚结束的窗口重新评估热点key
+     */
+    private void rotate(){
+        try{
+            CountMinSketch stale = previous;
+            previous = current;
+            stale.clear();
+            current = stale;
+            windowStart = System.currentTimeMillis();
+            long threshold = hotKeyProperties.getThreshold();
+            for (Map.Entry<String, Long> entry : hotKeys.entrySet()){
+                long count = previous.estimate(entry.getKey());
+                if (count < threshold){
+                    this.demote(entry.getKey());
+                }else{
+                    entry.setValue(count);
+                }
+            }
+        }catch (Exception e){
+            logger.error("rotate hot key window | {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.invalidation;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 本地缓存失效通知接口，分布式缓存数据变更时通知所有节点移除本地缓存
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public interface CacheInvalidationPublisher {
+
+    /**
+     * 通知所有节点移除指定key的本地缓存，当前节点立即移除，其他节点异步批量移除
+     * @param key 缓存key
+     */
+    void publish(String key);
+
+    /**
+     * 通知所有节点移除指定前缀的本地缓存，当前节点立即移除，其他节点异步批量移除
+     * @param keyPrefix 缓存key的前缀
+     */
+    void publishPrefix(String keyPrefix);
+}
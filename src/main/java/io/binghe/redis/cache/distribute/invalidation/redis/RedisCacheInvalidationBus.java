@@ -0,0 +1,217 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.invalidation.redis;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import io.binghe.redis.cache.distribute.hotkey.HotKeyDetector;
+import io.binghe.redis.cache.distribute.invalidation.CacheInvalidationPublisher;
+import io.binghe.redis.cache.distribute.twolevel.NearCacheRegistry;
+import io.binghe.redis.config.NearCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于Redis发布订阅实现的本地缓存失效总线，定时批量发送失效消息，收到其他节点的消息后批量移除本地缓存
+ * 消息格式：第一行为发送节点的标识，之后依次为失效条目，每个条目为类型字符、十进制的条目长度、冒号和条目内容，
+ * 条目按照长度截取，key中包含换行符等任意字符时都能正确解析
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.near.enabled", havingValue = "true")
+public class RedisCacheInvalidationBus implements CacheInvalidationPublisher, MessageListener {
+
+    private final Logger logger = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+
+    //节点标识与失效条目的分隔符
+    private static final char LINE_SEPARATOR = '\n';
+    //条目长度与条目内容的分隔符
+    private static final char LENGTH_SEPARATOR = ':';
+    //失效条目类型：单个key
+    private static final char TYPE_KEY = 'K';
+    //失效条目类型：key前缀
+    private static final char TYPE_PREFIX = 'P';
+
+    //当前节点标识，用于忽略自己发出的消息
+    private final String nodeId = IdUtil.fastSimpleUUID();
+    //待发送的失效条目，首字符为条目类型
+    private final ConcurrentLinkedQueue<String> pendingKeys = new ConcurrentLinkedQueue<>();
+    //批量发送失效消息的线程
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor((r) -> {
+        Thread thread = new Thread(r, "near-cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    @Qualifier("stringRedisTemplate")
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private NearCacheRegistry nearCacheRegistry;
+
+    @Autowired
+    private NearCacheProperties nearCacheProperties;
+
+    //开启热点key探测时同时移除热点key的本地副本
+    @Autowired(required = false)
+    private HotKeyDetector hotKeyDetector;
+
+    @PostConstruct
+    public void init(){
+        NearCacheProperties.Invalidation invalidation = nearCacheProperties.getInvalidation();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(invalidation.getChannel()));
+        flushExecutor.scheduleWithFixedDelay(this::flush, invalidation.getFlushMillis(), invalidation.getFlushMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy(){
+        flushExecutor.shutdown();
+        this.flush();
+    }
+
+    @Override
+    public void publish(String key) {
+        if (StrUtil.isEmpty(key)){
+            return;
+        }
+        nearCacheRegistry.evict(key);
+        if (hotKeyDetector != null){
+            hotKeyDetector.evict(key);
+        }
+        pendingKeys.offer(TYPE_KEY + key);
+    }
+
+    @Override
+    public void publishPrefix(String keyPrefix) {
+        if (StrUtil.isEmpty(keyPrefix)){
+            return;
+        }
+        nearCacheRegistry.evictByPrefix(keyPrefix);
+        if (hotKeyDetector != null){
+            hotKeyDetector.evictByPrefix(keyPrefix);
+        }
+        pendingKeys.offer(TYPE_PREFIX + keyPrefix);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int start = body.indexOf(LINE_SEPARATOR);
+        //自己发出的消息，本地缓存已经移除
+        if (start < 0 || nodeId.equals(body.substring(0, start))){
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        int index = start + 1;
+        while (index < body.length()){
+            char type = body.charAt(index);
+            int colon = body.indexOf(LENGTH_SEPARATOR, index + 1);
+            int length = colon < 0 ? -1 : this.parseLength(body, index + 1, colon);
+            if (length < 0 || colon + 1 + length > body.length()){
+                logger.warn("malformed near cache invalidation message | {}", index);
+                break;
+            }
+            String entry = body.substring(colon + 1, colon + 1 + length);
+            index = colon + 1 + length;
+            if (type == TYPE_KEY){
+                keys.add(entry);
+                if (hotKeyDetector != null){
+                    hotKeyDetector.evict(entry);
+                }
+            }else if (type == TYPE_PREFIX){
+                nearCacheRegistry.evictByPrefix(entry);
+                if (hotKeyDetector != null){
+                    hotKeyDetector.evictByPrefix(entry);
+                }
+            }
+        }
+        nearCacheRegistry.evictAll(keys);
+    }
+
+    /**
+     * 解析条目长度，格式不正确时返回-1
+     */
+    private int parseLength(String body, int begin, int end){
+        if (end <= begin || end - begin > 10){
+            return -1;
+        }
+        long length = 0;
+        for (int i = begin; i < end; i++){
+            int digit = Character.digit(body.charAt(i), 10);
+            if (digit < 0){
+                return -1;
+            }
+            length = length * 10 + digit;
+        }
+        return length > Integer.MAX_VALUE ? -1 : (int) length;
+    }
+
+    /**
+     * 将积压的失效key合并成批量消息发送出去
+     */
+    private void flush(){
+        int batchSize = nearCacheProperties.getInvalidation().getBatchSize();
+        try{
+            while (!pendingKeys.isEmpty()){
+                Set<String> batch = new LinkedHashSet<>();
+                String key;
+                while (batch.size() < batchSize && (key = pendingKeys.poll()) != null){
+                    batch.add(key);
+                }
+                if (batch.isEmpty()){
+                    return;
+                }
+                StringBuilder builder = new StringBuilder(nodeId);
+                builder.append(LINE_SEPARATOR);
+                for (String entry : batch){
+                    //第一个字符为条目类型，之后为条目内容
+                    builder.append(entry.charAt(0)).append(entry.length() - 1).append(LENGTH_SEPARATOR).append(entry, 1, entry.length());
+                }
+                redisTemplate.convertAndSend(nearCacheProperties.getInvalidation().getChannel(), builder.toString());
+            }
+        }catch (Exception e){
+            logger.error("flush near cache invalidation | {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.key;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 缓存key生成接口，负责将缓存key的前缀和参数拼接成Redis中的唯一Key
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public interface CacheKeyGenerator {
+
+    /**
+     * 生成缓存key，参数为空时直接返回前缀，简单类型直接拼接，复杂类型拼接摘要
+     * @param keyPrefix 缓存key的前缀
+     * @param id 参数
+     * @return 拼接好的缓存key
+     */
+    String generate(String keyPrefix, Object id);
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.key.md5;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.MD5;
+import cn.hutool.json.JSONUtil;
+import io.binghe.redis.cache.distribute.conversion.TypeConversion;
+import io.binghe.redis.cache.distribute.key.CacheKeyGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 默认的缓存key生成方式，复杂参数序列化成JSON后计算MD5，与之前版本生成的key保持一致
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.type.key-generator", havingValue = "md5", matchIfMissing = true)
+public class Md5CacheKeyGenerator implements CacheKeyGenerator {
+
+    private static final Md5CacheKeyGenerator INSTANCE = new Md5CacheKeyGenerator();
+
+    /**
+     * 未注入key生成Bean时使用的默认实例
+     */
+    public static Md5CacheKeyGenerator getInstance(){
+        return INSTANCE;
+    }
+
+    @Override
+    public String generate(String keyPrefix, Object id) {
+        if (id == null){
+            return keyPrefix;
+        }
+        String key = "";
+        //简单数据类型与简单字符串，枚举和日期时间类型仍然计算MD5，保持key不变
+        if (TypeConversion.isBasicType(id)){
+            key = StrUtil.toString(id);
+        }else {
+            key = MD5.create().digestHex(JSONUtil.toJsonStr(id));
+        }
+        if (StrUtil.isEmpty(key)){
+            key = "";
+        }
+        return keyPrefix.concat(key);
+    }
+}
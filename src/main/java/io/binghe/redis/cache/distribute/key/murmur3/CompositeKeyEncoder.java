@@ -0,0 +1,222 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.key.murmur3;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 复杂参数的二进制编码，对象按照字段名称排序后依次写入字段值，字段按照类型缓存，
+ * 基本类型字段直接读取，不产生装箱对象。集合和Map按照迭代顺序写入，与之前的JSON序列化保持一致
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+final class CompositeKeyEncoder {
+    //最大嵌套层数，避免循环引用导致栈溢出
+    private static final int MAX_DEPTH = 32;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INTEGRAL = 2;
+    private static final byte TAG_DECIMAL = 3;
+    private static final byte TAG_BOOLEAN = 4;
+    private static final byte TAG_CHAR = 5;
+    private static final byte TAG_ENUM = 6;
+    private static final byte TAG_TEXT = 7;
+    private static final byte TAG_COLLECTION = 8;
+    private static final byte TAG_ARRAY = 9;
+    private static final byte TAG_MAP = 10;
+    private static final byte TAG_OBJECT = 11;
+
+    private static final int KIND_INTEGRAL = 0;
+    private static final int KIND_DECIMAL = 1;
+    private static final int KIND_BOOLEAN = 2;
+    private static final int KIND_CHAR = 3;
+    private static final int KIND_OBJECT = 4;
+
+    //按照类型缓存排序后的字段
+    private static final ClassValue<FieldAccessor[]> FIELDS = new ClassValue<FieldAccessor[]>() {
+        @Override
+        protected FieldAccessor[] computeValue(Class<?> type) {
+            return resolveFields(type);
+        }
+    };
+
+    private CompositeKeyEncoder() {
+    }
+
+    /**
+     * 将参数编码后写入缓冲区
+     */
+    static void encode(Object value, KeyBuffer buffer){
+        encode(value, buffer, 0);
+    }
+
+    private static void encode(Object value, KeyBuffer buffer, int depth){
+        if (depth > MAX_DEPTH){
+            throw new IllegalArgumentException("cache key id is nested too deep, max depth is " + MAX_DEPTH);
+        }
+        if (value == null){
+            buffer.writeByte(TAG_NULL);
+            return;
+        }
+        if (value instanceof String){
+            buffer.writeByte(TAG_STRING);
+            buffer.writeString((String) value);
+        }else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte){
+            buffer.writeByte(TAG_INTEGRAL);
+            buffer.writeLong(((Number) value).longValue());
+        }else if (value instanceof Double || value instanceof Float){
+            buffer.writeByte(TAG_DECIMAL);
+            buffer.writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        }else if (value instanceof Boolean){
+            buffer.writeByte(TAG_BOOLEAN);
+            buffer.writeByte((Boolean) value ? 1 : 0);
+        }else if (value instanceof Character){
+            buffer.writeByte(TAG_CHAR);
+            buffer.writeChar((Character) value);
+        }else if (value instanceof Enum){
+            buffer.writeByte(TAG_ENUM);
+            buffer.writeString(((Enum<?>) value).name());
+        }else if (value instanceof Date){
+            buffer.writeByte(TAG_INTEGRAL);
+            buffer.writeLong(((Date) value).getTime());
+        }else if (value instanceof Collection){
+            Collection<?> collection = (Collection<?>) value;
+            buffer.writeByte(TAG_COLLECTION);
+            buffer.writeInt(collection.size());
+            for (Object element : collection){
+                encode(element, buffer, depth + 1);
+            }
+        }else if (value instanceof Map){
+            Map<?, ?> map = (Map<?, ?>) value;
+            buffer.writeByte(TAG_MAP);
+            buffer.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()){
+                encode(entry.getKey(), buffer, depth + 1);
+                encode(entry.getValue(), buffer, depth + 1);
+            }
+        }else if (value.getClass().isArray()){
+            int length = Array.getLength(value);
+            buffer.writeByte(TAG_ARRAY);
+            buffer.writeInt(length);
+            for (int i = 0; i < length; i++){
+                encode(Array.get(value, i), buffer, depth + 1);
+            }
+        }else if (isJdkType(value.getClass())){
+            //BigDecimal、java.time等JDK类型使用字符串形式
+            buffer.writeByte(TAG_TEXT);
+            buffer.writeString(value.toString());
+        }else{
+            encodeObject(value, buffer, depth);
+        }
+    }
+
+    private static void encodeObject(Object value, KeyBuffer buffer, int depth){
+        FieldAccessor[] accessors = FIELDS.get(value.getClass());
+        buffer.writeByte(TAG_OBJECT);
+        buffer.writeInt(accessors.length);
+        try {
+            for (FieldAccessor accessor : accessors){
+                Field field = accessor.field;
+                switch (accessor.kind){
+                    case KIND_INTEGRAL:
+                        buffer.writeByte(TAG_INTEGRAL);
+                        buffer.writeLong(field.getLong(value));
+                        break;
+                    case KIND_DECIMAL:
+                        buffer.writeByte(TAG_DECIMAL);
+                        buffer.writeLong(Double.doubleToLongBits(field.getDouble(value)));
+                        break;
+                    case KIND_BOOLEAN:
+                        buffer.writeByte(TAG_BOOLEAN);
+                        buffer.writeByte(field.getBoolean(value) ? 1 : 0);
+                        break;
+                    case KIND_CHAR:
+                        buffer.writeByte(TAG_CHAR);
+                        buffer.writeChar(field.getChar(value));
+                        break;
+                    default:
+                        encode(field.get(value), buffer, depth + 1);
+                        break;
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isJdkType(Class<?> type){
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    private static FieldAccessor[] resolveFields(Class<?> type){
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()){
+            for (Field field : current.getDeclaredFields()){
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()){
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        //按照字段名称排序，保证同一个类型的编码顺序固定
+        fields.sort(Comparator.comparing(Field::getName).thenComparing((field) -> field.getDeclaringClass().getName()));
+        FieldAccessor[] accessors = new FieldAccessor[fields.size()];
+        for (int i = 0; i < accessors.length; i++){
+            accessors[i] = new FieldAccessor(fields.get(i));
+        }
+        return accessors;
+    }
+
+    private static final class FieldAccessor {
+        private final Field field;
+        private final int kind;
+
+        private FieldAccessor(Field field) {
+            this.field = field;
+            this.kind = kindOf(field.getType());
+        }
+
+        private static int kindOf(Class<?> type){
+            if (type == long.class || type == int.class || type == short.class || type == byte.class){
+                return KIND_INTEGRAL;
+            }
+            if (type == double.class || type == float.class){
+                return KIND_DECIMAL;
+            }
+            if (type == boolean.class){
+                return KIND_BOOLEAN;
+            }
+            if (type == char.class){
+                return KIND_CHAR;
+            }
+            return KIND_OBJECT;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.key.murmur3;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 按照线程复用的key编码缓冲区，写入参数的二进制编码后计算MurmurHash3 x64 128位摘要，
+ * 再将前缀和十六进制的摘要写入字符缓冲区，整个过程只分配最终的key字符串
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+final class KeyBuffer {
+    //初始容量
+    private static final int INITIAL_CAPACITY = 256;
+    //超过该容量的缓冲区使用后释放，避免线程长期持有大数组
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    //128位摘要的十六进制长度
+    private static final int HEX_LENGTH = 32;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int size;
+    //最近一次计算的摘要的低64位和高64位
+    private long digest1;
+    private long digest2;
+
+    void reset(){
+        size = 0;
+    }
+
+    void writeByte(int value){
+        this.ensureCapacity(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void writeInt(int value){
+        this.ensureCapacity(4);
+        bytes[size++] = (byte) value;
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 24);
+    }
+
+    void writeLong(long value){
+        this.ensureCapacity(8);
+        for (int shift = 0; shift < 64; shift += 8){
+            bytes[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeChar(char value){
+        this.ensureCapacity(2);
+        bytes[size++] = (byte) value;
+        bytes[size++] = (byte) (value >>> 8);
+    }
+
+    /**
+     * 写入长度和UTF-16编码的字符，不调用getBytes分配临时数组
+     */
+    void writeString(String value){
+        int length = value.length();
+        this.writeInt(length);
+        this.ensureCapacity(length * 2);
+        for (int i = 0; i < length; i++){
+            char c = value.charAt(i);
+            bytes[size++] = (byte) c;
+            bytes[size++] = (byte) (c >>> 8);
+        }
+    }
+
+    /**
+     * 计算已写入数据的摘要并拼接到前缀之后
+     * @param keyPrefix 缓存key的前缀
+     * @param seed 摘要的种子
+     * @return 缓存key
+     */
+    String toKey(String keyPrefix, long seed){
+        this.digest(seed);
+        int prefixLength = keyPrefix.length();
+        int length = prefixLength + HEX_LENGTH;
+        if (chars.length < length){
+            chars = new char[Math.max(length, chars.length << 1)];
+        }
+        keyPrefix.getChars(0, prefixLength, chars, 0);
+        this.appendHex(digest1, prefixLength);
+        this.appendHex(digest2, prefixLength + 16);
+        String key = new String(chars, 0, length);
+        this.release();
+        return key;
+    }
+
+    /**
+     * 计算已写入数据的摘要，返回128位摘要的低64位
+     * @param seed 摘要的种子
+     */
+    long hash64(long seed){
+        this.digest(seed);
+        this.release();
+        return digest1;
+    }
+
+    private void digest(long seed){
+        long h1 = seed;
+        long h2 = seed;
+        int blocks = size >>> 4;
+        for (int i = 0; i < blocks; i++){
+            int offset = i << 4;
+            long k1 = this.getLong(offset);
+            long k2 = this.getLong(offset + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        int offset = blocks << 4;
+        long k1 = 0;
+        long k2 = 0;
+        switch (size & 15){
+            case 15: k2 ^= (long) (bytes[offset + 14] & 0xFF) << 48;
+            case 14: k2 ^= (long) (bytes[offset + 13] & 0xFF) << 40;
+            case 13: k2 ^= (long) (bytes[offset + 12] & 0xFF) << 32;
+            case 12: k2 ^= (long) (bytes[offset + 11] & 0xFF) << 24;
+            case 11: k2 ^= (long) (bytes[offset + 10] & 0xFF) << 16;
+            case 10: k2 ^= (long) (bytes[offset + 9] & 0xFF) << 8;
+            case 9: k2 ^= bytes[offset + 8] & 0xFF;
+                h2 ^= mixK2(k2);
+            case 8: k1 ^= (long) (bytes[offset + 7] & 0xFF) << 56;
+            case 7: k1 ^= (long) (bytes[offset + 6] & 0xFF) << 48;
+            case 6: k1 ^= (long) (bytes[offset + 5] & 0xFF) << 40;
+            case 5: k1 ^= (long) (bytes[offset + 4] & 0xFF) << 32;
+            case 4: k1 ^= (long) (bytes[offset + 3] & 0xFF) << 24;
+            case 3: k1 ^= (long) (bytes[offset + 2] & 0xFF) << 16;
+            case 2: k1 ^= (long) (bytes[offset + 1] & 0xFF) << 8;
+            case 1: k1 ^= bytes[offset] & 0xFF;
+                h1 ^= mixK1(k1);
+            default:
+                break;
+        }
+        h1 ^= size;
+        h2 ^= size;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        digest1 = h1;
+        digest2 = h2;
+    }
+
+    private void appendHex(long value, int offset){
+        for (int i = 15; i >= 0; i--){
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private long getLong(int offset){
+        long value = 0;
+        for (int i = 7; i >= 0; i--){
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private void ensureCapacity(int count){
+        if (size + count > bytes.length){
+            byte[] newBytes = new byte[Math.max(size + count, bytes.length << 1)];
+            System.arraycopy(bytes, 0, newBytes, 0, size);
+            bytes = newBytes;
+        }
+    }
+
+    private void release(){
+        if (bytes.length > MAX_RETAINED_CAPACITY){
+            bytes = new byte[INITIAL_CAPACITY];
+        }
+        if (chars.length > MAX_RETAINED_CAPACITY){
+            chars = new char[INITIAL_CAPACITY];
+        }
+        size = 0;
+    }
+
+    private static long mixK1(long k1){
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2){
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix64(long k){
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
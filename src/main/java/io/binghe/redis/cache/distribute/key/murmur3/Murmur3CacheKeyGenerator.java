@@ -0,0 +1,63 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.key.murmur3;
+
+import cn.hutool.core.util.StrUtil;
+import io.binghe.redis.cache.distribute.conversion.TypeConversion;
+import io.binghe.redis.cache.distribute.key.CacheKeyGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 复杂参数按照字段顺序编码成二进制后计算MurmurHash3 x64 128位摘要，
+ * 不经过JSON序列化，编码缓冲区按照线程复用。生成的key与MD5方式不同，切换后缓存需要重新加载
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.type.key-generator", havingValue = "murmur3")
+public class Murmur3CacheKeyGenerator implements CacheKeyGenerator {
+    //摘要种子，修改后所有复杂参数的key都会变化
+    private static final long SEED = 0x62696e676865L;
+
+    private static final Murmur3CacheKeyGenerator INSTANCE = new Murmur3CacheKeyGenerator();
+
+    private final ThreadLocal<KeyBuffer> buffers = ThreadLocal.withInitial(KeyBuffer::new);
+
+    /**
+     * 不依赖Spring容器时使用的实例
+     */
+    public static Murmur3CacheKeyGenerator getInstance(){
+        return INSTANCE;
+    }
+
+    @Override
+    public String generate(String keyPrefix, Object id) {
+        if (id == null){
+            return keyPrefix;
+        }
+        //简单数据类型与简单字符串直接拼接
+        if (TypeConversion.isSimpleType(id)){
+            return keyPrefix.concat(StrUtil.toString(id));
+        }
+        KeyBuffer buffer = buffers.get();
+        buffer.reset();
+        CompositeKeyEncoder.encode(id, buffer);
+        return buffer.toKey(keyPrefix, SEED);
+    }
+}
@@ -13,39 +13,31 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package io.binghe.redis.utils;
-
-import java.util.concurrent.*;
+package io.binghe.redis.cache.distribute.key.murmur3;
 
 /**
  * @author binghe(微信 : hacker_binghe)
  * @version 1.0.0
- * @description 线程工具类
+ * @description 字符串的MurmurHash3 x64 128位摘要，与缓存key生成共用同一个实现，编码缓冲区按照线程复用
  * @github https://github.com/binghe001
  * @copyright 公众号: 冰河技术
  */
-public class ThreadPoolUtils {
+public final class Murmur3Hash {
 
-    private static ThreadPoolExecutor executor = new ThreadPoolExecutor(16,
-            16,
-            30,
-            TimeUnit.SECONDS,
-            new ArrayBlockingQueue<>(4096),
-            new ThreadPoolExecutor.CallerRunsPolicy());
-    /**
-     * execute task in thread pool
-     */
-    public static void execute(Runnable command){
-        executor.execute(command);
-    }
+    private static final ThreadLocal<KeyBuffer> BUFFERS = ThreadLocal.withInitial(KeyBuffer::new);
 
-    public static <T> Future<T> shumit(Callable<T> task){
-        return executor.submit(task);
+    private Murmur3Hash() {
     }
 
-    public static void shutdown(){
-        if (executor != null){
-            executor.shutdown();
-        }
+    /**
+     * 计算字符串UTF-16编码的摘要，返回128位摘要的低64位
+     * @param value 字符串
+     * @param seed 摘要的种子
+     */
+    public static long hash64(String value, long seed){
+        KeyBuffer buffer = BUFFERS.get();
+        buffer.reset();
+        buffer.writeString(value);
+        return buffer.hash64(seed);
     }
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 单个缓存策略和key前缀对应的指标，创建时注册所有指标，记录时不再查找和创建指标
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class CacheMeters {
+    //请求次数
+    private static final String REQUESTS = "distribute.cache.requests";
+    //查询数据库的耗时
+    private static final String DB_FALLBACK = "distribute.cache.db.fallback";
+    //等待其他线程重建缓存的耗时
+    private static final String LOCK_WAIT = "distribute.cache.lock.wait";
+    //重建缓存的次数
+    private static final String REBUILDS = "distribute.cache.rebuilds";
+    //等待重建超时后降级查询数据库的次数
+    private static final String WAIT_TIMEOUTS = "distribute.cache.rebuild.wait.timeouts";
+
+    private final Counter hit;
+    private final Counter nullHit;
+    private final Counter stale;
+    private final Counter miss;
+    private final Timer dbFallback;
+    private final Timer lockWait;
+    private final Counter rebuilds;
+    private final Counter waitTimeouts;
+
+    public CacheMeters(MeterRegistry meterRegistry, String strategy, String keyPrefix) {
+        Tags tags = Tags.of("strategy", strategy, "prefix", keyPrefix);
+        this.hit = Counter.builder(REQUESTS).tags(tags).tag("result", "hit").register(meterRegistry);
+        this.nullHit = Counter.builder(REQUESTS).tags(tags).tag("result", "null_hit").register(meterRegistry);
+        this.stale = Counter.builder(REQUESTS).tags(tags).tag("result", "stale").register(meterRegistry);
+        this.miss = Counter.builder(REQUESTS).tags(tags).tag("result", "miss").register(meterRegistry);
+        this.dbFallback = Timer.builder(DB_FALLBACK).tags(tags).register(meterRegistry);
+        this.lockWait = Timer.builder(LOCK_WAIT).tags(tags).register(meterRegistry);
+        this.rebuilds = Counter.builder(REBUILDS).tags(tags).register(meterRegistry);
+        this.waitTimeouts = Counter.builder(WAIT_TIMEOUTS).tags(tags).register(meterRegistry);
+    }
+
+    /**
+     * 命中缓存数据
+     */
+    public void hit(){
+        hit.increment();
+    }
+
+    /**
+     * 批量命中缓存数据
+     */
+    public void hit(long count){
+        if (count > 0){
+            hit.increment(count);
+        }
+    }
+
+    /**
+     * 命中缓存的空数据
+     */
+    public void nullHit(){
+        nullHit.increment();
+    }
+
+    /**
+     * 批量命中缓存的空数据
+     */
+    public void nullHit(long count){
+        if (count > 0){
+            nullHit.increment(count);
+        }
+    }
+
+    /**
+     * 命中已经逻辑过期的数据
+     */
+    public void stale(){
+        stale.increment();
+    }
+
+    /**
+     * 未命中缓存
+     */
+    public void miss(){
+        miss.increment();
+    }
+
+    /**
+     * 批量未命中缓存
+     */
+    public void miss(long count){
+        if (count > 0){
+            miss.increment(count);
+        }
+    }
+
+    /**
+     * 查询数据库并记录耗时
+     */
+    public <T> T recordDbFallback(Supplier<T> supplier){
+        return dbFallback.record(supplier);
+    }
+
+    /**
+     * 记录异步查询数据库的耗时
+     */
+    public void recordDbFallback(long nanos){
+        dbFallback.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录等待其他线程重建缓存的耗时
+     */
+    public void recordLockWait(long nanos){
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 重建缓存
+     */
+    public void rebuild(){
+        rebuilds.increment();
+    }
+
+    /**
+     * 等待重建超时
+     */
+    public void waitTimeout(){
+        waitTimeouts.increment();
+    }
+}
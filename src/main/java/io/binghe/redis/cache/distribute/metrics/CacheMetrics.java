@@ -0,0 +1,82 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 分布式缓存指标，按照缓存策略和key前缀分组，通过Spring Boot Actuator导出。
+ * keyPrefix与queryWith*系列方法的keyPrefix相同，数量有限，每组指标只在第一次访问时注册
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+public class CacheMetrics {
+
+    /**
+     * 缓存策略
+     */
+    public enum Strategy {
+        PASS_THROUGH("pass_through"),
+        MUTEX("mutex"),
+        LOGICAL_EXPIRE("logical_expire"),
+        EARLY_EXPIRE("early_expire");
+
+        private final String tag;
+
+        Strategy(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    //每个策略下keyPrefix到指标的映射
+    private final Map<Strategy, Map<String, CacheMeters>> meters = new EnumMap<>(Strategy.class);
+
+    public CacheMetrics() {
+        for (Strategy strategy : Strategy.values()){
+            meters.put(strategy, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 获取缓存策略和key前缀对应的指标
+     * @param strategy 缓存策略
+     * @param keyPrefix 缓存key的前缀
+     * @return 指标
+     */
+    public CacheMeters get(Strategy strategy, String keyPrefix){
+        String prefix = keyPrefix == null ? "" : keyPrefix;
+        Map<String, CacheMeters> strategyMeters = meters.get(strategy);
+        //先get再computeIfAbsent，命中时不加锁
+        CacheMeters cacheMeters = strategyMeters.get(prefix);
+        return cacheMeters != null ? cacheMeters : strategyMeters.computeIfAbsent(prefix, (k) -> new CacheMeters(meterRegistry, strategy.getTag(), k));
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.rebuild;
+
+import io.binghe.redis.config.CacheRebuildExecutorProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 逻辑过期缓存的重建线程池，同一个key排队中的重建任务只保留一个，
+ * 线程池饱和时直接拒绝，不在请求线程中执行重建，开启虚拟线程时每个重建任务使用一个虚拟线程
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+public class CacheRebuildExecutor {
+    private final Logger logger = LoggerFactory.getLogger(CacheRebuildExecutor.class);
+
+    @Autowired
+    private CacheRebuildExecutorProperties cacheRebuildExecutorProperties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    //已提交还未执行完成的重建任务
+    private final ConcurrentHashMap<String, Boolean> pending = new ConcurrentHashMap<>();
+    //正在执行的重建任务数量
+    private final AtomicInteger active = new AtomicInteger();
+
+    private ExecutorService executor;
+    //使用线程池时不为空
+    private ThreadPoolExecutor threadPoolExecutor;
+    private Counter rejected;
+    private Counter deduplicated;
+
+    @PostConstruct
+    public void init(){
+        if (cacheRebuildExecutorProperties.isVirtualThreads()){
+            executor = this.newVirtualThreadExecutor();
+        }
+        if (executor == null){
+            AtomicInteger index = new AtomicInteger();
+            threadPoolExecutor = new ThreadPoolExecutor(cacheRebuildExecutorProperties.getCoreSize(),
+                    Math.max(cacheRebuildExecutorProperties.getCoreSize(), cacheRebuildExecutorProperties.getMaxSize()),
+                    cacheRebuildExecutorProperties.getKeepAliveSeconds(),
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(cacheRebuildExecutorProperties.getQueueCapacity()),
+                    (r) -> {
+                        Thread thread = new Thread(r, "cache-rebuild-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor = threadPoolExecutor;
+        }
+        if (meterRegistry != null){
+            Gauge.builder("distribute.cache.rebuild.queue.size", this, CacheRebuildExecutor::getQueueSize).register(meterRegistry);
+            Gauge.builder("distribute.cache.rebuild.active", active, AtomicInteger::get).register(meterRegistry);
+            rejected = Counter.builder("distribute.cache.rebuild.rejected").register(meterRegistry);
+            deduplicated = Counter.builder("distribute.cache.rebuild.deduplicated").register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void destroy(){
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(cacheRebuildExecutorProperties.getShutdownTimeoutSeconds(), TimeUnit.SECONDS)){
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 提交缓存重建任务，同一个key已经有重建任务在排队或者执行时直接返回
+     * @param key 缓存key
+     * @param task 重建任务
+     * @return 是否提交成功，重复提交和线程池饱和时返回false
+     */
+    public boolean submit(String key, Runnable task){
+        if (pending.putIfAbsent(key, Boolean.TRUE) != null){
+            if (deduplicated != null){
+                deduplicated.increment();
+            }
+            return false;
+        }
+        //虚拟线程没有队列，按照等待执行的任务数量限制
+        if (threadPoolExecutor == null && pending.size() > cacheRebuildExecutorProperties.getQueueCapacity()){
+            this.reject(key);
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    pending.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            this.reject(key);
+            return false;
+        }
+    }
+
+    /**
+     * 等待执行的重建任务数量
+     */
+    public int getQueueSize(){
+        return threadPoolExecutor != null ? threadPoolExecutor.getQueue().size() : Math.max(0, pending.size() - active.get());
+    }
+
+    private void reject(String key){
+        pending.remove(key);
+        if (rejected != null){
+            rejected.increment();
+        }
+        logger.warn("cache rebuild executor is saturated, skip rebuild|{}", key);
+    }
+
+    //通过反射创建虚拟线程池，兼容Java 8编译
+    private ExecutorService newVirtualThreadExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("virtual threads are not supported by the current jvm, fallback to thread pool");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.rebuild;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 缓存重建完成信号，未获取到锁的线程等待重建线程写入缓存后被立即唤醒，
+ * 重建发生在其他节点时等待超时后重新读取缓存
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class CacheRebuildSignal {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> signals = new ConcurrentHashMap<>();
+
+    /**
+     * 注册等待信号，需要在重新读取缓存之前注册，避免错过重建完成的信号
+     * @param key 缓存key
+     * @return 重建完成信号
+     */
+    public CompletableFuture<Void> register(String key){
+        CompletableFuture<Void> signal = signals.get(key);
+        return signal != null ? signal : signals.computeIfAbsent(key, (k) -> new CompletableFuture<>());
+    }
+
+    /**
+     * 等待重建完成信号
+     * @param key 缓存key
+     * @param signal 注册的信号
+     * @param timeout 最长等待时长
+     * @param unit 时间单位
+     * @return 是否收到信号，超时返回false
+     */
+    public boolean await(String key, CompletableFuture<Void> signal, long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            signal.get(timeout, unit);
+            return true;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            //重建发生在其他节点，移除信号避免长期占用内存
+            signals.remove(key, signal);
+            return false;
+        }
+    }
+
+    /**
+     * 重建完成，唤醒所有等待的线程
+     * @param key 缓存key
+     */
+    public void signal(String key){
+        CompletableFuture<Void> signal = signals.remove(key);
+        if (signal != null){
+            signal.complete(null);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.redis;
+
+import io.binghe.redis.cache.distribute.compress.CacheValueCompressor;
+import io.binghe.redis.cache.distribute.data.LogicalExpireEnvelope;
+import io.binghe.redis.cache.distribute.data.RedisData;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description Redis中缓存数据的编码和解码，同步和异步缓存共用，保证两者读写的数据格式和分布式锁key完全一致
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+public class CacheValueCodec {
+    //缓存空数据的时长，单位秒
+    public static final Long CACHE_NULL_TTL = 60L;
+    //缓存的空数据
+    public static final String EMPTY_VALUE = "";
+    //缓存的空列表数据
+    public static final String EMPTY_LIST_VALUE = "[]";
+    //分布式锁key的后缀
+    public static final String LOCK_SUFFIX = "_lock";
+
+    @Autowired
+    private CacheSerializer cacheSerializer;
+
+    @Autowired
+    private CacheValueCompressor cacheValueCompressor;
+
+    /**
+     * 序列化要缓存的数据，超过key所在区域阈值的数据进行压缩
+     */
+    public String encodeValue(String key, Object value){
+        return cacheValueCompressor.compress(key, cacheSerializer.serialize(value));
+    }
+
+    /**
+     * 解压缓存数据，未压缩的数据原样返回
+     */
+    public String decompress(String value){
+        return cacheValueCompressor.decompress(value);
+    }
+
+    /**
+     * 批量解压缓存数据
+     */
+    public List<String> decompress(List<String> values){
+        if (values == null){
+            return null;
+        }
+        List<String> result = new ArrayList<>(values.size());
+        for (String value : values){
+            result.add(cacheValueCompressor.decompress(value));
+        }
+        return result;
+    }
+
+    /**
+     * 生成逻辑过期数据，空数据只保存数据标识，业务数据按照压缩配置压缩，头部不压缩
+     */
+    public String getEnvelope(String key, Object value, long expireMillis){
+        return this.getEnvelope(key, value, expireMillis, -1L);
+    }
+
+    /**
+     * 生成逻辑过期数据，deltaMillis大于等于0时同时保存重建缓存的耗时
+     */
+    public String getEnvelope(String key, Object value, long expireMillis, long deltaMillis){
+        char flag = LogicalExpireEnvelope.FLAG_DATA;
+        if (value == null || EMPTY_VALUE.equals(value)){
+            flag = LogicalExpireEnvelope.FLAG_NULL;
+        }else if (EMPTY_LIST_VALUE.equals(value)){
+            flag = LogicalExpireEnvelope.FLAG_EMPTY;
+        }
+        String payload = flag == LogicalExpireEnvelope.FLAG_DATA ? this.encodeValue(key, value) : null;
+        return deltaMillis < 0 ? LogicalExpireEnvelope.encode(expireMillis, flag, payload) : LogicalExpireEnvelope.encodeWithDelta(expireMillis, deltaMillis, flag, payload);
+    }
+
+    /**
+     * 获取逻辑过期数据中解压后的业务数据
+     */
+    public String getPayload(String envelope){
+        return cacheValueCompressor.decompress(LogicalExpireEnvelope.getPayload(envelope));
+    }
+
+    /**
+     * 兼容升级前以JSON格式保存的RedisData，将其转换成当前的存储格式
+     */
+    public String toEnvelope(String str){
+        if (LogicalExpireEnvelope.isEnvelope(str)){
+            return str;
+        }
+        RedisData redisData = cacheSerializer.deserialize(str, RedisData.class);
+        long expireMillis = redisData.getExpireTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return this.getEnvelope(null, redisData.getData(), expireMillis);
+    }
+
+    /**
+     * 重建缓存时使用的分布式锁key
+     */
+    public String getLockKey(String key){
+        return key.concat(LOCK_SUFFIX);
+    }
+}
@@ -0,0 +1,499 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.redis;
+
+import cn.hutool.core.util.StrUtil;
+import io.binghe.redis.cache.distribute.AsyncDistributeCacheService;
+import io.binghe.redis.cache.distribute.DistributeCacheService;
+import io.binghe.redis.cache.distribute.data.LogicalExpireEnvelope;
+import io.binghe.redis.cache.distribute.hotkey.HotKeyDetector;
+import io.binghe.redis.cache.distribute.invalidation.CacheInvalidationPublisher;
+import io.binghe.redis.cache.distribute.metrics.CacheMeters;
+import io.binghe.redis.cache.distribute.metrics.CacheMetrics;
+import io.binghe.redis.lock.lease.AbstractLeaseLock;
+import io.binghe.redis.lock.script.LockScripts;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static io.binghe.redis.cache.distribute.redis.CacheValueCodec.CACHE_NULL_TTL;
+import static io.binghe.redis.cache.distribute.redis.CacheValueCodec.EMPTY_LIST_VALUE;
+import static io.binghe.redis.cache.distribute.redis.CacheValueCodec.EMPTY_VALUE;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于Lettuce响应式客户端实现的异步分布式缓存，内部使用Mono编排Redis访问和数据库查询，
+ * 存储格式与RedisDistributeCacheService完全一致，同步和异步接口可以读写同一份缓存数据
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.type.distribute", havingValue = "redis")
+public class RedisAsyncDistributeCacheService implements AsyncDistributeCacheService {
+
+    private final Logger logger = LoggerFactory.getLogger(RedisAsyncDistributeCacheService.class);
+
+    //未获取到锁时重新读取缓存的间隔
+    private static final Duration REBUILD_WAIT = Duration.ofMillis(50);
+    //租约锁
+    private static final String LOCK_TYPE_LEASE = "lease";
+    //Redisson锁
+    private static final String LOCK_TYPE_REDISSON = "redisson";
+
+    //等待缓存重建的最长毫秒数，超过后降级直接查询数据库
+    @Value("${cache.rebuild.max-wait-millis:3000}")
+    private long rebuildMaxWaitMillis;
+
+    //异步互斥锁的租约时长，加载数据的时长超过租约后锁自动释放
+    @Value("${cache.rebuild.lock-lease-millis:10000}")
+    private long lockLeaseMillis;
+
+    //同步接口使用的分布式锁类型，异步重建通过相同类型的锁加锁，同步和异步重建同一个key时互斥
+    @Value("${distribute.type.lock:redisson}")
+    private String lockType;
+
+    //异步加锁的持有者标识，每次加锁递增，Redisson锁取负数作为线程ID，不会与真实的线程ID重复
+    private final AtomicLong lockOwnerSequence = new AtomicLong();
+    //租约锁的令牌前缀，区分不同节点
+    private final String tokenPrefix = AbstractLeaseLock.newNodeId();
+
+    //同一个JVM内相同key的缓存未命中请求合并
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    @Qualifier("reactiveStringRedisTemplate")
+    private ReactiveStringRedisTemplate reactiveRedisTemplate;
+
+    //复用同步缓存的key生成和序列化方式
+    @Autowired
+    private DistributeCacheService distributeCacheService;
+
+    @Autowired
+    private CacheValueCodec cacheValueCodec;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    //开启二级缓存时通知所有节点移除本地缓存
+    @Autowired(required = false)
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    //开启热点key探测时，数据变更后移除热点key的本地副本
+    @Autowired(required = false)
+    private HotKeyDetector hotKeyDetector;
+
+    //使用Redisson锁时通过RLock的异步接口加锁
+    @Autowired(required = false)
+    private RedissonClient redissonClient;
+
+    @PostConstruct
+    public void init(){
+        //其他类型的锁无法与异步重建互斥，启动时直接失败
+        if (!LOCK_TYPE_LEASE.equals(lockType) && !LOCK_TYPE_REDISSON.equals(lockType)){
+            throw new IllegalStateException("async distribute cache does not support lock type: " + lockType);
+        }
+        if (LOCK_TYPE_REDISSON.equals(lockType) && redissonClient == null){
+            throw new IllegalStateException("async distribute cache requires a RedissonClient for lock type: " + lockType);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> set(String key, Object value) {
+        return reactiveRedisTemplate.opsForValue().set(key, cacheValueCodec.encodeValue(key, value))
+                .doOnSuccess((result) -> this.publishInvalidation(key))
+                .then()
+                .toFuture();
+    }
+
+    @Override
+    public CompletionStage<Void> set(String key, Object value, Long timeout, TimeUnit unit) {
+        return this.setValue(key, cacheValueCodec.encodeValue(key, value), unit.toMillis(timeout)).toFuture();
+    }
+
+    @Override
+    public CompletionStage<Void> setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit) {
+        return this.setEnvelope(key, cacheValueCodec.getEnvelope(key, value, System.currentTimeMillis() + unit.toMillis(timeout))).toFuture();
+    }
+
+    @Override
+    public CompletionStage<String> get(String key) {
+        return this.getCacheValue(key).toFuture();
+    }
+
+    @Override
+    public <T> CompletionStage<T> getObject(String key, Class<T> targetClass) {
+        return this.getCacheValue(key).flatMap((str) -> {
+            try {
+                return Mono.justOrEmpty(distributeCacheService.getResult(str, targetClass));
+            } catch (Exception e) {
+                return Mono.<T>empty();
+            }
+        }).toFuture();
+    }
+
+    @Override
+    public CompletionStage<List<String>> multiGet(Collection<String> keys) {
+        return reactiveRedisTemplate.opsForValue().multiGet(keys).map((values) -> cacheValueCodec.decompress(values)).toFuture();
+    }
+
+    @Override
+    public CompletionStage<Boolean> delete(String key) {
+        if (StrUtil.isEmpty(key)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return reactiveRedisTemplate.delete(key)
+                .map((count) -> count > 0)
+                .doOnSuccess((result) -> this.publishInvalidation(key))
+                .toFuture();
+    }
+
+    @Override
+    public <R, ID> CompletionStage<R> queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributeCacheService.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.PASS_THROUGH, keyPrefix);
+        return this.queryWithPassThrough(key, (str) -> distributeCacheService.getResult(str, type), this.load(id, dbFallback, meters), Objects::isNull, timeout, unit, meters).toFuture();
+    }
+
+    @Override
+    public <R, ID> CompletionStage<List<R>> queryWithPassThroughList(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<List<R>>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributeCacheService.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.PASS_THROUGH, keyPrefix);
+        return this.queryWithPassThrough(key, (str) -> distributeCacheService.getResultList(str, type), this.load(id, dbFallback, meters), (list) -> list == null || list.isEmpty(), timeout, unit, meters).toFuture();
+    }
+
+    @Override
+    public <R, ID> CompletionStage<R> queryWithLogicalExpire(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributeCacheService.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.LOGICAL_EXPIRE, keyPrefix);
+        return this.queryWithLogicalExpire(key, (str) -> distributeCacheService.getResult(str, type), () -> null, this.load(id, dbFallback, meters), EMPTY_VALUE, timeout, unit, meters).toFuture();
+    }
+
+    @Override
+    public <R, ID> CompletionStage<List<R>> queryWithLogicalExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<List<R>>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributeCacheService.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.LOGICAL_EXPIRE, keyPrefix);
+        return this.queryWithLogicalExpire(key, (str) -> distributeCacheService.getResultList(str, type), ArrayList::new, this.load(id, dbFallback, meters), EMPTY_LIST_VALUE, timeout, unit, meters).toFuture();
+    }
+
+    @Override
+    public <R, ID> CompletionStage<R> queryWithMutex(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributeCacheService.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.MUTEX, keyPrefix);
+        return this.queryWithMutex(key, (str) -> distributeCacheService.getResult(str, type), this.load(id, dbFallback, meters), timeout, unit, meters).toFuture();
+    }
+
+    @Override
+    public <R, ID> CompletionStage<List<R>> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, CompletionStage<List<R>>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributeCacheService.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.MUTEX, keyPrefix);
+        return this.queryWithMutex(key, (str) -> distributeCacheService.getResultList(str, type), this.load(id, dbFallback, meters), timeout, unit, meters).toFuture();
+    }
+
+    /**
+     * 缓存穿透：未命中时查询数据库并写回缓存，数据库不存在数据时缓存空数据
+     * @param decoder 解析缓存数据
+     * @param loader 查询数据库
+     * @param isEmpty 判断数据库的数据是否为空
+     */
+    private <T> Mono<T> queryWithPassThrough(String key, Function<String, T> decoder, Mono<T> loader, Predicate<T> isEmpty, Long timeout, TimeUnit unit, CacheMeters meters) {
+        return this.readCache(key).flatMap((cached) -> {
+            //缓存存在数据或者空数据
+            if (cached.isPresent()){
+                this.recordHit(meters, cached.get());
+                return this.decode(cached.get(), decoder);
+            }
+            meters.miss();
+            //同一个JVM内相同key的请求只查询一次数据库
+            return this.singleFlight(key, () -> this.writeBack(key, loader, isEmpty, timeout, unit));
+        });
+    }
+
+    /**
+     * 互斥锁：未命中时只有获取到锁的请求查询数据库，其他请求异步等待缓存重建完成
+     */
+    private <T> Mono<T> queryWithMutex(String key, Function<String, T> decoder, Mono<T> loader, Long timeout, TimeUnit unit, CacheMeters meters) {
+        return this.readCache(key).flatMap((cached) -> {
+            if (cached.isPresent()){
+                this.recordHit(meters, cached.get());
+                return this.decode(cached.get(), decoder);
+            }
+            meters.miss();
+            return this.singleFlight(key, () -> this.withMutex(key, (str) -> this.decode(str, decoder),
+                    () -> this.writeBack(key, loader, Objects::isNull, timeout, unit), loader, System.nanoTime(), meters));
+        });
+    }
+
+    /**
+     * 逻辑过期：未命中时按照互斥锁的方式重建缓存，已经过期时返回旧数据并在后台异步重建
+     * @param emptyResult 数据标识为空集合时返回的数据
+     * @param emptyValue 数据库不存在数据时缓存的空数据
+     */
+    private <T> Mono<T> queryWithLogicalExpire(String key, Function<String, T> decoder, Supplier<T> emptyResult, Mono<T> loader, String emptyValue, Long timeout, TimeUnit unit, CacheMeters meters) {
+        return this.readCache(key).flatMap((cached) -> {
+            if (!cached.isPresent() || StrUtil.isBlank(cached.get())){
+                meters.miss();
+                return this.singleFlight(key, () -> this.withMutex(key, (str) -> this.decodeEnvelope(str, decoder, emptyResult),
+                        () -> this.writeEnvelope(key, loader, emptyResult, emptyValue, timeout, unit), loader, System.nanoTime(), meters));
+            }
+            //命中，先解析头部
+            String str = cacheValueCodec.toEnvelope(cached.get());
+            if (LogicalExpireEnvelope.isExpired(str, System.currentTimeMillis())){
+                meters.stale();
+                //已经过期，后台重建缓存
+                this.refreshEnvelope(key, loader, emptyResult, emptyValue, timeout, unit, meters);
+            }else if (LogicalExpireEnvelope.getFlag(str) == LogicalExpireEnvelope.FLAG_NULL){
+                meters.nullHit();
+            }else{
+                meters.hit();
+            }
+            return this.decodeEnvelope(str, decoder, emptyResult);
+        });
+    }
+
+    /**
+     * 竞争互斥锁重建缓存，获取到锁后Double Check，未获取到锁时按照固定间隔重新读取缓存，超过最长等待时长降级查询数据库
+     * @param decoder 解析缓存数据
+     * @param rebuild 查询数据库并写回缓存
+     * @param fallback 等待超时后直接查询数据库
+     * @param start 开始等待的时间，单位纳秒
+     */
+    private <T> Mono<T> withMutex(String key, Function<String, Mono<T>> decoder, Supplier<Mono<T>> rebuild, Mono<T> fallback, long start, CacheMeters meters) {
+        String lockKey = cacheValueCodec.getLockKey(key);
+        long owner = lockOwnerSequence.incrementAndGet();
+        return this.tryLock(lockKey, owner).flatMap((locked) -> {
+            if (locked){
+                //获取锁成功, Double Check，完成、异常和取消时都释放锁
+                return Mono.usingWhen(Mono.just(owner),
+                        (t) -> this.readCache(key).flatMap((cached) -> {
+                            if (cached.isPresent()){
+                                return decoder.apply(cached.get());
+                            }
+                            meters.rebuild();
+                            return rebuild.get();
+                        }),
+                        (t) -> this.unlock(lockKey, t),
+                        (t, e) -> this.unlock(lockKey, t),
+                        (t) -> this.unlock(lockKey, t));
+            }
+            //未获取到锁，异步等待后重新读取缓存
+            return Mono.delay(REBUILD_WAIT).then(this.readCache(key)).flatMap((cached) -> {
+                if (cached.isPresent()){
+                    //其他请求已经重建完成
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return decoder.apply(cached.get());
+                }
+                if (System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(rebuildMaxWaitMillis)){
+                    logger.warn("async query data with mutex wait timeout, fallback to db|{}", key);
+                    meters.waitTimeout();
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return fallback;
+                }
+                return this.withMutex(key, decoder, rebuild, fallback, start, meters);
+            });
+        });
+    }
+
+    /**
+     * 后台重建逻辑过期数据，未获取到锁或者其他请求已经完成重建时直接跳过
+     */
+    private <T> void refreshEnvelope(String key, Mono<T> loader, Supplier<T> emptyResult, String emptyValue, Long timeout, TimeUnit unit, CacheMeters meters) {
+        String lockKey = cacheValueCodec.getLockKey(key);
+        long owner = lockOwnerSequence.incrementAndGet();
+        this.tryLock(lockKey, owner)
+                .filter(Boolean::booleanValue)
+                .flatMap((locked) -> Mono.usingWhen(Mono.just(owner),
+                        //Double Check，只需要解析头部判断是否过期
+                        (t) -> this.readCache(key).flatMap((cached) -> {
+                            if (cached.isPresent() && StrUtil.isNotEmpty(cached.get()) && !LogicalExpireEnvelope.isExpired(cacheValueCodec.toEnvelope(cached.get()), System.currentTimeMillis())){
+                                return Mono.<T>empty();
+                            }
+                            meters.rebuild();
+                            return this.writeEnvelope(key, loader, emptyResult, emptyValue, timeout, unit);
+                        }),
+                        (t) -> this.unlock(lockKey, t),
+                        (t, e) -> this.unlock(lockKey, t),
+                        (t) -> this.unlock(lockKey, t)))
+                .subscribe(null, (e) -> logger.error("async build cache | {}", e.getMessage()));
+    }
+
+    /**
+     * 查询数据库并写回缓存，数据库不存在数据时缓存空数据
+     */
+    private <T> Mono<T> writeBack(String key, Mono<T> loader, Predicate<T> isEmpty, Long timeout, TimeUnit unit) {
+        return loader.map(Optional::of).defaultIfEmpty(Optional.empty()).flatMap((r) -> {
+            if (!r.isPresent() || isEmpty.test(r.get())){
+                return this.setValue(key, EMPTY_VALUE, TimeUnit.SECONDS.toMillis(CACHE_NULL_TTL)).then(Mono.<T>empty());
+            }
+            return this.setValue(key, cacheValueCodec.encodeValue(key, r.get()), unit.toMillis(timeout)).thenReturn(r.get());
+        });
+    }
+
+    /**
+     * 查询数据库并写回逻辑过期数据
+     */
+    private <T> Mono<T> writeEnvelope(String key, Mono<T> loader, Supplier<T> emptyResult, String emptyValue, Long timeout, TimeUnit unit) {
+        return loader.map(Optional::of).defaultIfEmpty(Optional.empty()).flatMap((r) -> {
+            long now = System.currentTimeMillis();
+            if (!r.isPresent()){
+                return this.setEnvelope(key, cacheValueCodec.getEnvelope(key, emptyValue, now + TimeUnit.SECONDS.toMillis(CACHE_NULL_TTL))).then(Mono.justOrEmpty(emptyResult.get()));
+            }
+            return this.setEnvelope(key, cacheValueCodec.getEnvelope(key, r.get(), now + unit.toMillis(timeout))).thenReturn(r.get());
+        });
+    }
+
+    /**
+     * 同一个JVM内相同key的请求合并，加载任务独立订阅，任何一个请求取消订阅都不会中断加载，加载完成后照常写回缓存
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> singleFlight(String key, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null){
+                existing = call;
+                loader.get()
+                        .doFinally((signal) -> inFlight.remove(key, call))
+                        .subscribe(call::complete, call::completeExceptionally, () -> call.complete(null));
+            }
+            //每个请求订阅各自的派生Future，取消时只影响自己
+            return Mono.fromFuture(existing.thenApply((value) -> (T) value));
+        });
+    }
+
+    /**
+     * 异步查询数据库，只有订阅时才会执行，完成、异常和取消时记录耗时
+     */
+    private <T, ID> Mono<T> load(ID id, Function<ID, CompletionStage<T>> dbFallback, CacheMeters meters) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.fromCompletionStage(dbFallback.apply(id)).doFinally((signal) -> meters.recordDbFallback(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * 读取缓存数据，key不存在时返回Optional.empty()，用于区分未命中和缓存的空数据
+     */
+    private Mono<Optional<String>> readCache(String key) {
+        return this.getCacheValue(key).map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+
+    /**
+     * 获取缓存数据，压缩过的数据透明解压
+     */
+    private Mono<String> getCacheValue(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key).map((value) -> cacheValueCodec.decompress(value));
+    }
+
+    /**
+     * 解析缓存数据，缓存的空数据返回null
+     */
+    private <T> Mono<T> decode(String str, Function<String, T> decoder) {
+        return StrUtil.isNotBlank(str) ? Mono.justOrEmpty(decoder.apply(str)) : Mono.empty();
+    }
+
+    /**
+     * 解析逻辑过期数据
+     */
+    private <T> Mono<T> decodeEnvelope(String str, Function<String, T> decoder, Supplier<T> emptyResult) {
+        str = cacheValueCodec.toEnvelope(str);
+        char flag = LogicalExpireEnvelope.getFlag(str);
+        if (flag == LogicalExpireEnvelope.FLAG_DATA){
+            return Mono.justOrEmpty(decoder.apply(cacheValueCodec.getPayload(str)));
+        }
+        if (flag == LogicalExpireEnvelope.FLAG_EMPTY){
+            return Mono.justOrEmpty(emptyResult.get());
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> setValue(String key, String value, long timeoutMillis) {
+        return reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofMillis(timeoutMillis))
+                .doOnSuccess((result) -> this.publishInvalidation(key))
+                .then();
+    }
+
+    private Mono<Void> setEnvelope(String key, String envelope) {
+        return reactiveRedisTemplate.opsForValue().set(key, envelope)
+                .doOnSuccess((result) -> this.publishInvalidation(key))
+                .then();
+    }
+
+    /**
+     * 按照同步接口分布式锁的类型加锁，租约锁为SET NX PX，Redisson锁通过RLock的异步接口加锁
+     * @param owner 本次加锁的持有者标识
+     */
+    private Mono<Boolean> tryLock(String lockKey, long owner) {
+        if (this.isLeaseLock()){
+            return reactiveRedisTemplate.opsForValue().setIfAbsent(lockKey, this.getToken(owner), Duration.ofMillis(lockLeaseMillis));
+        }
+        return Mono.fromCompletionStage(() -> redissonClient.getLock(lockKey).tryLockAsync(0, lockLeaseMillis, TimeUnit.MILLISECONDS, -owner));
+    }
+
+    private Mono<Void> unlock(String lockKey, long owner) {
+        if (this.isLeaseLock()){
+            return reactiveRedisTemplate.execute(LockScripts.COMPARE_AND_DELETE, Collections.singletonList(lockKey), Collections.singletonList(this.getToken(owner))).then();
+        }
+        //租约已经过期时Redisson抛出IllegalMonitorStateException，锁已经不再持有，忽略即可
+        return Mono.fromCompletionStage(() -> redissonClient.getLock(lockKey).unlockAsync(-owner))
+                .onErrorResume((e) -> {
+                    logger.warn("async unlock cache rebuild lock | {} | {}", lockKey, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private boolean isLeaseLock() {
+        return LOCK_TYPE_LEASE.equals(lockType);
+    }
+
+    private String getToken(long owner) {
+        return tokenPrefix.concat(Long.toString(owner));
+    }
+
+    //通知所有节点移除本地缓存
+    private void publishInvalidation(String key) {
+        if (hotKeyDetector != null){
+            hotKeyDetector.evict(key);
+        }
+        if (cacheInvalidationPublisher != null){
+            cacheInvalidationPublisher.publish(key);
+        }
+    }
+}
@@ -15,29 +15,60 @@
  */
 package io.binghe.redis.cache.distribute.redis;
 
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
+import com.google.common.util.concurrent.RateLimiter;
 import io.binghe.redis.cache.distribute.DistributeCacheService;
-import io.binghe.redis.cache.distribute.data.RedisData;
+import io.binghe.redis.cache.distribute.data.LogicalExpireEnvelope;
+import io.binghe.redis.cache.distribute.hotkey.HotKeyDetector;
+import io.binghe.redis.cache.distribute.invalidation.CacheInvalidationPublisher;
+import io.binghe.redis.cache.distribute.key.CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.metrics.CacheMeters;
+import io.binghe.redis.cache.distribute.metrics.CacheMetrics;
+import io.binghe.redis.cache.distribute.rebuild.CacheRebuildExecutor;
+import io.binghe.redis.cache.distribute.rebuild.CacheRebuildSignal;
+import io.binghe.redis.cache.distribute.scan.KeyScanner;
+import io.binghe.redis.cache.distribute.script.CacheMutexScripts;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import io.binghe.redis.cache.distribute.singleflight.SingleFlight;
 import io.binghe.redis.lock.DistributedLock;
 import io.binghe.redis.lock.factory.DistributedLockFactory;
-import io.binghe.redis.utils.ThreadPoolUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.binghe.redis.cache.distribute.redis.CacheValueCodec.CACHE_NULL_TTL;
+import static io.binghe.redis.cache.distribute.redis.CacheValueCodec.EMPTY_LIST_VALUE;
+import static io.binghe.redis.cache.distribute.redis.CacheValueCodec.EMPTY_VALUE;
 
 /**
  * @author binghe(微信 : hacker_binghe)
@@ -52,16 +83,35 @@ public class RedisDistributeCacheService implements DistributeCacheService {
 
     private final Logger logger = LoggerFactory.getLogger(RedisDistributeCacheService.class);
 
-    //缓存空数据的时长，单位秒
-    private static final Long CACHE_NULL_TTL = 60L;
-    //缓存的空数据
-    private static final String EMPTY_VALUE = "";
-    //缓存的空列表数据
-    private static final String EMPTY_LIST_VALUE = "[]";
-    //分布式锁key的后缀
-    private static final String LOCK_SUFFIX = "_lock";
-    //线程休眠的毫秒数
-    private static final long THREAD_SLEEP_MILLISECONDS = 50;
+    //每个管道批量写入的最大条数
+    private static final int PIPELINE_BATCH_SIZE = 1000;
+    //超过该条数时并行序列化要缓存的数据
+    private static final int PARALLEL_ENCODE_THRESHOLD = 2000;
+    //单次等待缓存重建完成的纳秒数，重建发生在其他节点时按照该间隔重新读取缓存
+    private static final long REBUILD_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    //等待缓存重建的最长毫秒数，超过后降级直接查询数据库
+    @Value("${cache.rebuild.max-wait-millis:3000}")
+    private long rebuildMaxWaitMillis;
+
+    //概率提前过期的系数，大于1时更倾向于提前重建
+    @Value("${cache.early-expire.beta:1.0}")
+    private double earlyExpireBeta;
+
+    //keys方法每次SCAN的COUNT参数
+    @Value("${cache.scan.count:1000}")
+    private int scanCount;
+
+    //缓存重建完成信号
+    private final CacheRebuildSignal rebuildSignal = new CacheRebuildSignal();
+
+    //同一个JVM内相同key的缓存未命中请求合并
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    //重建令牌的前缀，区分不同的节点
+    private final String tokenPrefix = IdUtil.fastSimpleUUID().concat(":");
+    //重建令牌的序号
+    private final AtomicLong tokenSequence = new AtomicLong();
 
     @Autowired
     @Qualifier("stringRedisTemplate")
@@ -70,40 +120,124 @@ public class RedisDistributeCacheService implements DistributeCacheService {
     @Autowired
     private DistributedLockFactory distributedLockFactory;
 
+    @Autowired
+    private CacheSerializer cacheSerializer;
+
+    @Autowired
+    private CacheKeyGenerator cacheKeyGenerator;
+
+    @Autowired
+    private CacheValueCodec cacheValueCodec;
+
+    @Autowired
+    private KeyScanner keyScanner;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private CacheRebuildExecutor cacheRebuildExecutor;
+
+    //开启二级缓存时通知所有节点移除本地缓存
+    @Autowired(required = false)
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    //开启热点key探测时，热点key优先读取本地副本
+    @Autowired(required = false)
+    private HotKeyDetector hotKeyDetector;
+
+    //cache.mutex.mode为script时使用Lua脚本实现互斥重建
+    @Autowired(required = false)
+    private CacheMutexScripts cacheMutexScripts;
+
+    @Override
+    public CacheSerializer getCacheSerializer() {
+        return cacheSerializer;
+    }
+
+    @Override
+    public CacheKeyGenerator getCacheKeyGenerator() {
+        return cacheKeyGenerator;
+    }
+
     @Override
     public void set(String key, Object value) {
-        redisTemplate.opsForValue().set(key, this.getValue(value));
+        redisTemplate.opsForValue().set(key, cacheValueCodec.encodeValue(key, value));
+        this.publishInvalidation(key);
     }
 
     @Override
     public void set(String key, Object value, Long timeout, TimeUnit unit) {
-        redisTemplate.opsForValue().set(key, this.getValue(value), timeout, unit);
+        redisTemplate.opsForValue().set(key, cacheValueCodec.encodeValue(key, value), timeout, unit);
+        this.publishInvalidation(key);
+    }
+
+    @Override
+    public void multiSet(Map<String, Object> values, Long timeout, TimeUnit unit) {
+        if (timeout == null || timeout <= 0){
+            throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        }
+        long timeoutMillis = unit.toMillis(timeout);
+        this.multiSet(values, (key) -> timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void multiSet(Map<String, Object> values, ToLongFunction<String> timeout, TimeUnit unit) {
+        if (values == null || values.isEmpty()){
+            return;
+        }
+        //写入之前计算并校验所有的过期时长，避免写入一部分后才发现过期时长不合法
+        Map<String, Long> timeouts = new HashMap<>(values.size());
+        long nullTimeoutMillis = TimeUnit.SECONDS.toMillis(CACHE_NULL_TTL);
+        for (Map.Entry<String, Object> entry : values.entrySet()){
+            //空数据与单个查询保持一致，使用空数据的过期时长，避免长时间挡住真实数据
+            long timeoutMillis = entry.getValue() == null ? nullTimeoutMillis : unit.toMillis(timeout.applyAsLong(entry.getKey()));
+            if (timeoutMillis <= 0){
+                throw new IllegalArgumentException("timeout must be positive: " + entry.getKey());
+            }
+            timeouts.put(entry.getKey(), timeoutMillis);
+        }
+        Map<String, String> cacheValues = this.encodeValues(values, (key, value) -> value == null ? EMPTY_VALUE : cacheValueCodec.encodeValue(key, value));
+        this.batchPipelinedSet(cacheValues, timeouts::get);
+    }
+
+    @Override
+    public void multiSetWithLogicalExpire(Map<String, Object> values, Long timeout, TimeUnit unit) {
+        if (values == null || values.isEmpty()){
+            return;
+        }
+        long expireMillis = System.currentTimeMillis() + unit.toMillis(timeout);
+        Map<String, String> cacheValues = this.encodeValues(values, (key, value) -> cacheValueCodec.getEnvelope(key, value, expireMillis));
+        //逻辑过期数据不设置物理过期时间
+        this.batchPipelinedSet(cacheValues, null);
     }
 
     @Override
     public Boolean expire(String key, long timeout, TimeUnit unit) {
-        return redisTemplate.expire(key, timeout, unit);
+        Boolean result = redisTemplate.expire(key, timeout, unit);
+        this.publishInvalidation(key);
+        return result;
     }
 
     @Override
     public void setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit) {
-        RedisData redisData = new RedisData(value, LocalDateTime.now().plusSeconds(unit.toSeconds(timeout)));
-        redisTemplate.opsForValue().set(key, JSONUtil.toJsonStr(redisData));
+        redisTemplate.opsForValue().set(key, cacheValueCodec.getEnvelope(key, value, System.currentTimeMillis() + unit.toMillis(timeout)));
+        this.publishInvalidation(key);
     }
 
     @Override
     public String get(String key) {
-        return redisTemplate.opsForValue().get(key);
+        return this.getCacheValue(key);
     }
 
     @Override
     public <T> T getObject(String key, Class<T> targetClass) {
-        Object result = redisTemplate.opsForValue().get(key);
+        Object result = this.getCacheValue(key);
         if (result == null) {
             return null;
         }
         try {
-            return JSONUtil.toBean(result.toString(), targetClass);
+            return this.getResult(result, targetClass);
         } catch (Exception e) {
             return null;
         }
@@ -111,12 +245,57 @@ public class RedisDistributeCacheService implements DistributeCacheService {
 
     @Override
     public List<String> multiGet(Collection<String> keys) {
-        return redisTemplate.opsForValue().multiGet(keys);
+        return cacheValueCodec.decompress(redisTemplate.opsForValue().multiGet(keys));
     }
 
     @Override
     public Set<String> keys(String pattern) {
-        return redisTemplate.keys(pattern);
+        try (Stream<String> stream = this.scan(pattern, scanCount)){
+            return stream.collect(Collectors.toSet());
+        }
+    }
+
+    @Override
+    public Stream<String> scan(String pattern, int count) {
+        return keyScanner.scan(pattern, count);
+    }
+
+    @Override
+    public long evictByPrefix(String keyPrefix, int batchSize, double permitsPerSecond, LongConsumer progress) {
+        if (StrUtil.isEmpty(keyPrefix)){
+            throw new IllegalArgumentException("keyPrefix must not be empty");
+        }
+        int size = Math.max(1, batchSize);
+        RateLimiter rateLimiter = permitsPerSecond > 0 ? RateLimiter.create(permitsPerSecond) : null;
+        long evicted = 0;
+        List<String> batch = new ArrayList<>(size);
+        try (Stream<String> stream = this.scan(this.escapePattern(keyPrefix).concat("*"), size)){
+            Iterator<String> iterator = stream.iterator();
+            while (iterator.hasNext()){
+                batch.add(iterator.next());
+                if (batch.size() < size && iterator.hasNext()){
+                    continue;
+                }
+                //按照删除的key数量限速
+                if (rateLimiter != null){
+                    rateLimiter.acquire(batch.size());
+                }
+                evicted += keyScanner.unlink(batch);
+                batch.clear();
+                if (progress != null){
+                    progress.accept(evicted);
+                }
+            }
+        }
+        //移除所有节点的本地缓存
+        if (hotKeyDetector != null){
+            hotKeyDetector.evictByPrefix(keyPrefix);
+        }
+        if (cacheInvalidationPublisher != null){
+            cacheInvalidationPublisher.publishPrefix(keyPrefix);
+        }
+        logger.info("evict cache by prefix|{}|{}", keyPrefix, evicted);
+        return evicted;
     }
 
     @Override
@@ -124,654 +303,801 @@ public class RedisDistributeCacheService implements DistributeCacheService {
         if (StrUtil.isEmpty(key)) {
             return false;
         }
-        return redisTemplate.delete(key);
+        Boolean result = redisTemplate.delete(key);
+        this.publishInvalidation(key);
+        return result;
     }
 
     @Override
     public <R, ID> R queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到Redis中的数据key
         String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.PASS_THROUGH, keyPrefix);
         //从Redis查询缓存数据
-        String str = redisTemplate.opsForValue().get(key);
+        String str = this.getCacheValue(key);
         //缓存存在数据，直接返回
         if (StrUtil.isNotBlank(str)){
+            meters.hit();
             //返回数据
             return this.getResult(str, type);
         }
         //缓存中存储的是空字符串
         if (str != null){
+            meters.nullHit();
             //直接返回空
             return null;
         }
-        //从数据库查询数据
-        R r = dbFallback.apply(id);
-        //数据数据为空
-        if (r == null){
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-            return null;
-        }
-        //缓存数据
-        this.set(key, r, timeout, unit);
-        return r;
+        meters.miss();
+        //同一个JVM内相同key的请求只查询一次数据库
+        return singleFlight.execute(key, () -> {
+            //从数据库查询数据
+            R r = meters.recordDbFallback(() -> dbFallback.apply(id));
+            //数据数据为空
+            if (r == null){
+                redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+                return null;
+            }
+            //缓存数据
+            this.set(key, r, timeout, unit);
+            return r;
+        });
     }
 
     @Override
-    public <R> R queryWithPassThroughWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
-        //获取存储到Redis中的数据key
-        String key = this.getKey(keyPrefix);
-        //从Redis查询缓存数据
-        String str = redisTemplate.opsForValue().get(key);
-        //缓存存在数据，直接返回
-        if (StrUtil.isNotBlank(str)){
-            //返回数据
-            return this.getResult(str, type);
+    public <R, ID> Map<ID, R> multiQueryWithPassThrough(String keyPrefix, Collection<ID> ids, Class<R> type, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit) {
+        Map<ID, R> result = new LinkedHashMap<>();
+        if (ids == null || ids.isEmpty()){
+            return result;
         }
-        //缓存中存储的是空字符串
-        if (str != null){
-            //直接返回空
-            return null;
+        //去重并保持顺序
+        List<ID> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.PASS_THROUGH, keyPrefix);
+        List<String> keys = new ArrayList<>(idList.size());
+        for (ID id : idList){
+            keys.add(this.getKey(keyPrefix, id));
         }
-        //从数据库查询数据
-        R r = dbFallback.get();
-        //数据数据为空
-        if (r == null){
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-            return null;
+        //一次MGET批量查询缓存数据
+        List<String> values = cacheValueCodec.decompress(redisTemplate.opsForValue().multiGet(keys));
+        List<ID> missIds = new ArrayList<>();
+        int nullHits = 0;
+        Map<ID, String> missKeys = new HashMap<>();
+        for (int i = 0; i < idList.size(); i++){
+            String str = values == null ? null : values.get(i);
+            ID id = idList.get(i);
+            //缓存存在数据
+            if (StrUtil.isNotBlank(str)){
+                result.put(id, this.getResult(str, type));
+            }else if (str != null){
+                nullHits++;
+            }else{
+                //缓存中存储的空字符串表示数据库不存在数据，只有完全未命中的数据才需要查询数据库
+                missIds.add(id);
+                missKeys.put(id, keys.get(i));
+            }
         }
-        //缓存数据
-        this.set(key, r, timeout, unit);
-        return r;
+        meters.hit(result.size());
+        meters.nullHit(nullHits);
+        meters.miss(missIds.size());
+        if (missIds.isEmpty()){
+            return result;
+        }
+        //一次批量查询数据库
+        Map<ID, R> dbResult = meters.recordDbFallback(() -> dbFallback.apply(missIds));
+        Map<String, String> cacheValues = new LinkedHashMap<>(missIds.size());
+        for (ID id : missIds){
+            R r = dbResult == null ? null : dbResult.get(id);
+            if (r == null){
+                cacheValues.put(missKeys.get(id), EMPTY_VALUE);
+            }else{
+                cacheValues.put(missKeys.get(id), cacheValueCodec.encodeValue(missKeys.get(id), r));
+            }
+        }
+        long timeoutMillis = unit.toMillis(timeout);
+        long nullTimeoutMillis = TimeUnit.SECONDS.toMillis(CACHE_NULL_TTL);
+        //一次管道批量写回缓存
+        this.pipelinedSet(cacheValues, (key) -> EMPTY_VALUE.equals(cacheValues.get(key)) ? nullTimeoutMillis : timeoutMillis);
+        //按照ids的顺序组装结果
+        Map<ID, R> orderedResult = new LinkedHashMap<>(idList.size());
+        for (ID id : idList){
+            R r = result.containsKey(id) ? result.get(id) : (dbResult == null ? null : dbResult.get(id));
+            if (r != null){
+                orderedResult.put(id, r);
+            }
+        }
+        return orderedResult;
+    }
+
+    @Override
+    public <R> R queryWithPassThroughWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.queryWithPassThrough(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
     }
 
     @Override
     public <R, ID> List<R> queryWithPassThroughList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到Redis中的数据key
         String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.PASS_THROUGH, keyPrefix);
         //从Redis查询缓存数据
-        String str = redisTemplate.opsForValue().get(key);
+        String str = this.getCacheValue(key);
         //缓存存在数据，直接返回
         if (StrUtil.isNotBlank(str)){
+            meters.hit();
             //返回数据
             return this.getResultList(str, type);
         }
         if (str != null){
+            meters.nullHit();
             //直接返回数据
             return null;
         }
-        List<R> r = dbFallback.apply(id);
-        //数据库数据为空
-        if (r == null || r.isEmpty()){
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-            return null;
-        }
-        this.set(key, r, timeout, unit);
-        return r;
+        meters.miss();
+        //同一个JVM内相同key的请求只查询一次数据库
+        return singleFlight.execute(key, () -> {
+            List<R> r = meters.recordDbFallback(() -> dbFallback.apply(id));
+            //数据库数据为空
+            if (r == null || r.isEmpty()){
+                redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+                return null;
+            }
+            this.set(key, r, timeout, unit);
+            return r;
+        });
     }
 
     @Override
     public <R> List<R> queryWithPassThroughListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
-        //获取存储到Redis中的数据key
-        String key = this.getKey(keyPrefix);
-        //从Redis查询缓存数据
-        String str = redisTemplate.opsForValue().get(key);
-        //缓存存在数据，直接返回
-        if (StrUtil.isNotBlank(str)){
-            //返回数据
-            return this.getResultList(str, type);
-        }
-        if (str != null){
-            //直接返回数据
-            return null;
-        }
-        List<R> r = dbFallback.get();
-        //数据库数据为空
-        if (r == null || r.isEmpty()){
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-            return null;
-        }
-        this.set(key, r, timeout, unit);
-        return r;
+        return this.queryWithPassThroughList(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
     }
 
     @Override
     public <R, ID> R queryWithLogicalExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到Redis中的数据key
         String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.LOGICAL_EXPIRE, keyPrefix);
         //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
+        String str = this.getCacheValue(key);
         //判断数据是否存在
         if (StrUtil.isBlank(str)){
-            try{
-                // 构建缓存数据
-                buildCache(id, dbFallback, timeout, unit, key);
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                //重试
-                return queryWithLogicalExpire(keyPrefix, id, type, dbFallback, timeout, unit);
-            }catch (InterruptedException e){
-                logger.error("query data with logical expire|{}", e.getMessage());
-                throw new RuntimeException(e);
+            meters.miss();
+            long start = System.nanoTime();
+            // 构建缓存数据，并等待重建完成
+            //同一个JVM内相同key的请求只提交一次重建任务
+            str = singleFlight.execute(key, () -> this.awaitRebuild(key, () -> buildCache(id, dbFallback, timeout, unit, key, EMPTY_VALUE, meters)));
+            meters.recordLockWait(System.nanoTime() - start);
+            //等待超时，降级直接查询数据库
+            if (str == null){
+                meters.waitTimeout();
+                logger.warn("query data with logical expire wait timeout, fallback to db|{}", key);
+                return meters.recordDbFallback(() -> dbFallback.apply(id));
             }
         }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(str, RedisData.class);
-        if (EMPTY_VALUE.equals(redisData.getData())){
-            return null;
-        }
-        R r = this.getResult(redisData.getData(), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
+        //命中，先解析头部
+        str = cacheValueCodec.toEnvelope(str);
+        R r = LogicalExpireEnvelope.getFlag(str) == LogicalExpireEnvelope.FLAG_DATA ? this.getResult(cacheValueCodec.getPayload(str), type) : null;
         //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())){
+        if (!LogicalExpireEnvelope.isExpired(str, System.currentTimeMillis())){
             // 未过期，直接返回数据
+            this.recordHit(meters, str);
             return r;
         }
+        meters.stale();
         //缓存获取，构建缓存数据
-        buildCache(id, dbFallback, timeout, unit, key);
+        buildCache(id, dbFallback, timeout, unit, key, EMPTY_VALUE, meters);
         //返回逻辑过期数据
         return r;
     }
 
-    /**
-     * 构建缓存逻辑过期数据
-     */
-    private <R, ID> void buildCache(ID id, Function<ID, R> dbFallback, Long timeout, TimeUnit unit, String key) {
-        // 分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
-            try{
-                boolean isLock = distributedLock.tryLock();
-                //获取锁成功, Double Check
-                if (isLock){
-                    R newR = null;
-                    //从Redis获取缓存数据
-                    String str = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(str)){
-                        //查询数据库
-                        newR = dbFallback.apply(id);
-                    }else{
-                        //命中，需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(str, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        if (expireTime.isBefore(LocalDateTime.now())){
-                            //查询数据库
-                            newR = dbFallback.apply(id);
-                        }else{
-                            return;
-                        }
-                    }
-                    if (newR != null){
-                        // 重建缓存
-                        this.setWithLogicalExpire(key, newR, timeout, unit);
-                    }else{
-                        this.setWithLogicalExpire(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                    }
-                }
-            }catch (InterruptedException e){
-                logger.error("build cache | {}", e.getMessage());
-                throw new RuntimeException(e);
-            }finally {
-                distributedLock.unlock();
-            }
-        });
-    }
-
     @Override
     public <R> R queryWithLogicalExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
-        //获取存储到Redis中的数据key
-        String key = this.getKey(keyPrefix);
-        //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
-        //判断数据是否存在
-        if (StrUtil.isBlank(str)){
-            try{
-                // 构建缓存数据
-                buildCacheWithoutArgs(dbFallback, timeout, unit, key);
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                //重试
-                return queryWithLogicalExpireWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
-            }catch (InterruptedException e){
-                logger.error("query data with logical expire|{}", e.getMessage());
-                throw new RuntimeException(e);
-            }
-        }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(str, RedisData.class);
-        if (EMPTY_VALUE.equals(redisData.getData())){
-            return null;
-        }
-        R r = this.getResult(redisData.getData(), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
-        //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())){
-            // 未过期，直接返回数据
-            return r;
-        }
-        //缓存获取，构建缓存数据
-        buildCacheWithoutArgs(dbFallback, timeout, unit, key);
-        //返回逻辑过期数据
-        return r;
-    }
-
-    /**
-     * 构建缓存逻辑过期数据
-     */
-    private <R> void buildCacheWithoutArgs(Supplier<R> dbFallback, Long timeout, TimeUnit unit, String key) {
-        // 分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
-            try{
-                boolean isLock = distributedLock.tryLock();
-                //获取锁成功, Double Check
-                if (isLock){
-                    R newR = null;
-                    //从Redis获取缓存数据
-                    String str = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(str)){
-                        //查询数据库
-                        newR = dbFallback.get();
-                    }else{
-                        //命中，需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(str, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        if (expireTime.isBefore(LocalDateTime.now())){
-                            //查询数据库
-                            newR = dbFallback.get();
-                        }else {
-                            return;
-                        }
-                    }
-                    if (newR != null){
-                        // 重建缓存
-                        this.setWithLogicalExpire(key, newR, timeout, unit);
-                    }else {
-                        this.setWithLogicalExpire(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                    }
-                }
-            }catch (InterruptedException e){
-                logger.error("build cache | {}", e.getMessage());
-                throw new RuntimeException(e);
-            }finally {
-                distributedLock.unlock();
-            }
-        });
+        return this.queryWithLogicalExpire(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
     }
 
-
     @Override
     public <R, ID> List<R> queryWithLogicalExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到Redis中的数据key
         String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.LOGICAL_EXPIRE, keyPrefix);
         //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
+        String str = this.getCacheValue(key);
         //判断数据是否存在
         if (StrUtil.isBlank(str)){
-            try{
-                // 构建缓存数据
-                buildCacheList(id, dbFallback, timeout, unit, key);
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                //重试
-                return queryWithLogicalExpireList(keyPrefix, id, type, dbFallback, timeout, unit);
-            }catch (InterruptedException e){
-                logger.error("query data with logical expire|{}", e.getMessage());
-                throw new RuntimeException(e);
+            meters.miss();
+            long start = System.nanoTime();
+            // 构建缓存数据，并等待重建完成
+            //同一个JVM内相同key的请求只提交一次重建任务
+            str = singleFlight.execute(key, () -> this.awaitRebuild(key, () -> buildCache(id, dbFallback, timeout, unit, key, EMPTY_LIST_VALUE, meters)));
+            meters.recordLockWait(System.nanoTime() - start);
+            //等待超时，降级直接查询数据库
+            if (str == null){
+                meters.waitTimeout();
+                logger.warn("query data with logical expire wait timeout, fallback to db|{}", key);
+                return meters.recordDbFallback(() -> dbFallback.apply(id));
             }
         }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(str, RedisData.class);
-        if (EMPTY_LIST_VALUE.equals(redisData.getData())){
-            return new ArrayList<>();
+        //命中，先解析头部
+        str = cacheValueCodec.toEnvelope(str);
+        char flag = LogicalExpireEnvelope.getFlag(str);
+        List<R> list = null;
+        if (flag == LogicalExpireEnvelope.FLAG_DATA){
+            list = this.getResultList(cacheValueCodec.getPayload(str), type);
+        }else if (flag == LogicalExpireEnvelope.FLAG_EMPTY){
+            list = new ArrayList<>();
         }
-        List<R> list = this.getResultList(JSONUtil.toJsonStr(redisData.getData()), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
         //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())){
+        if (!LogicalExpireEnvelope.isExpired(str, System.currentTimeMillis())){
             // 未过期，直接返回数据
+            this.recordHit(meters, str);
             return list;
         }
+        meters.stale();
         //缓存获取，构建缓存数据
-        buildCacheList(id, dbFallback, timeout, unit, key);
+        buildCache(id, dbFallback, timeout, unit, key, EMPTY_LIST_VALUE, meters);
         //返回逻辑过期数据
         return list;
     }
 
+    @Override
+    public <R> List<R> queryWithLogicalExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.queryWithLogicalExpireList(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
+    }
+
     /**
      * 构建缓存逻辑过期数据
+     * @param emptyValue 数据库不存在数据时缓存的空数据
+     * @param meters 缓存指标
      */
-    private <R, ID> void buildCacheList(ID id, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit, String key) {
-        // 分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
+    private <R, ID> void buildCache(ID id, Function<ID, R> dbFallback, Long timeout, TimeUnit unit, String key, String emptyValue, CacheMeters meters) {
+        //同一个key排队中的重建任务只保留一个，线程池饱和时直接返回，不阻塞请求线程
+        cacheRebuildExecutor.submit(key, () -> {
+            //获取分布式锁
+            DistributedLock distributedLock = distributedLockFactory.getDistributedLock(cacheValueCodec.getLockKey(key));
+            boolean isLock = false;
             try{
-                boolean isLock = distributedLock.tryLock();
+                isLock = distributedLock.tryLock();
                 //获取锁成功, Double Check
                 if (isLock){
-                    List<R> newR = null;
-                    //从Redis获取缓存数据
-                    String str = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(str)){
-                        //查询数据库
-                        newR = dbFallback.apply(id);
-                    }else{
-                        //命中，需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(str, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        //缓存已经逻辑过期
-                        if (expireTime.isBefore(LocalDateTime.now())){
-                            //查询数据库
-                            newR = dbFallback.apply(id);
-                        }else {
-                            return;
-                        }
+                    //从Redis获取缓存数据，只需要解析头部判断是否过期
+                    String str = this.getRedisValue(key);
+                    if (StrUtil.isNotEmpty(str) && !LogicalExpireEnvelope.isExpired(cacheValueCodec.toEnvelope(str), System.currentTimeMillis())){
+                        return;
                     }
+                    //查询数据库
+                    meters.rebuild();
+                    R newR = meters.recordDbFallback(() -> dbFallback.apply(id));
                     if (newR != null){
                         // 重建缓存
                         this.setWithLogicalExpire(key, newR, timeout, unit);
-                    }else {
-                        this.setWithLogicalExpire(key, EMPTY_LIST_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+                    }else{
+                        this.setWithLogicalExpire(key, emptyValue, CACHE_NULL_TTL, TimeUnit.SECONDS);
                     }
                 }
             }catch (InterruptedException e){
-                logger.error("build cache list | {}", e.getMessage());
+                logger.error("build cache | {}", e.getMessage());
                 throw new RuntimeException(e);
             }finally {
                 distributedLock.unlock();
+                //只有真正执行了重建的线程才发出信号，避免等待线程空转
+                if (isLock){
+                    rebuildSignal.signal(key);
+                }
             }
         });
     }
 
-    @Override
-    public <R> List<R> queryWithLogicalExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
-        //获取存储到Redis中的数据key
-        String key = this.getKey(keyPrefix);
-        //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
-        //判断数据是否存在
-        if (StrUtil.isBlank(str)){
-            try{
-                // 构建缓存数据
-                buildCacheListWithoutArgs(dbFallback, timeout, unit, key);
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                //重试
-                return queryWithLogicalExpireListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
-            }catch (InterruptedException e){
-                logger.error("query data with logical expire|{}", e.getMessage());
-                throw new RuntimeException(e);
-            }
-        }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(str, RedisData.class);
-        if (EMPTY_LIST_VALUE.equals(redisData.getData())){
-            return new ArrayList<>();
-        }
-        List<R> list = this.getResultList(JSONUtil.toJsonStr(redisData.getData()), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
-        //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())){
-            // 未过期，直接返回数据
-            return list;
-        }
-        //缓存获取，构建缓存数据
-        buildCacheListWithoutArgs(dbFallback, timeout, unit, key);
-        //返回逻辑过期数据
-        return list;
-    }
-
     /**
-     * 构建缓存逻辑过期数据
+     * 提交缓存重建任务并等待重建完成信号，收到信号或者单次等待超时后重新读取缓存
+     * @param key 缓存key
+     * @param rebuild 提交缓存重建任务
+     * @return 缓存数据，超过最长等待时长仍未重建完成时返回null
      */
-    private <R> void buildCacheListWithoutArgs(Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit, String key) {
-        // 分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
-            try{
-                boolean isLock = distributedLock.tryLock();
-                //获取锁成功, Double Check
-                if (isLock){
-                    List<R> newR = null;
-                    //从Redis获取缓存数据
-                    String str = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(str)){
-                        //查询数据库
-                        newR = dbFallback.get();
-                    }else{
-                        //命中，需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(str, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        //缓存已经逻辑过期
-                        if (expireTime.isBefore(LocalDateTime.now())){
-                            //查询数据库
-                            newR = dbFallback.get();
-                        }else {
-                            return;
-                        }
-                    }
-                    if (newR != null){
-                        // 重建缓存
-                        this.setWithLogicalExpire(key, newR, timeout, unit);
-                    }else {
-                        this.setWithLogicalExpire(key, EMPTY_LIST_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                    }
+    private String awaitRebuild(String key, Runnable rebuild){
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(rebuildMaxWaitMillis);
+        try{
+            while (true){
+                //先注册信号再提交重建任务，避免错过重建完成的信号
+                CompletableFuture<Void> signal = rebuildSignal.register(key);
+                rebuild.run();
+                long remaining = deadline - System.nanoTime();
+                rebuildSignal.await(key, signal, Math.max(0, Math.min(remaining, REBUILD_WAIT_NANOS)), TimeUnit.NANOSECONDS);
+                String str = this.getRedisValue(key);
+                if (StrUtil.isNotBlank(str)){
+                    return str;
+                }
+                if (deadline - System.nanoTime() <= 0){
+                    return null;
                 }
-            }catch (InterruptedException e){
-                logger.error("build cache list | {}", e.getMessage());
-                throw new RuntimeException(e);
-            }finally {
-                distributedLock.unlock();
             }
-        });
+        }catch (InterruptedException e){
+            logger.error("await cache rebuild|{}", e.getMessage());
+            throw new RuntimeException(e);
+        }
     }
 
-
     @Override
     public <R, ID> R queryWithMutex(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到Redis中的数据key
         String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.MUTEX, keyPrefix);
+        //一次脚本调用完成读取缓存或者抢占重建令牌
+        if (cacheMutexScripts != null){
+            return this.queryWithMutexScript(key, id, (value) -> this.getResult(value, type), dbFallback, timeout, unit, meters);
+        }
         //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
+        String str = this.getCacheValue(key);
         if (StrUtil.isNotBlank(str)){
+            meters.hit();
             //存在数据，直接返回
             return this.getResult(str, type);
         }
         //缓存了空字符串
         if (str != null){
+            meters.nullHit();
             return null;
         }
-        String lockKey = this.getLockKey(key);
-        R r = null;
+        meters.miss();
+        //同一个JVM内相同key的请求只有一个线程竞争分布式锁
+        return singleFlight.execute(key, () -> this.loadWithMutex(key, id, type, dbFallback, timeout, unit, meters));
+    }
+
+    /**
+     * 竞争分布式锁重建缓存，未获取到锁时等待重建完成
+     */
+    private <R, ID> R loadWithMutex(String key, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit, CacheMeters meters) {
+        String str;
+        String lockKey = cacheValueCodec.getLockKey(key);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(rebuildMaxWaitMillis);
         //获取分布式锁
         DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
         try {
-            boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
-            if (!isLock){
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                return queryWithMutex(keyPrefix, id, type, dbFallback, timeout, unit);
-            }
-            //获取锁成功, Double Check
-            str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)){
-                //存在数据，直接返回
-                return this.getResult(str, type);
-            }
-            //成功获取到锁
-            r = dbFallback.apply(id);
-            //数据库本身不存在数据
-            if (r == null){
-                //缓存空数据
-                this.set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
+            while (true){
+                boolean isLock = distributedLock.tryLock();
+                if (isLock){
+                    try{
+                        //获取锁成功, Double Check
+                        str = this.getRedisValue(key);
+                        if (StrUtil.isNotBlank(str)){
+                            //存在数据，直接返回
+                            return this.getResult(str, type);
+                        }
+                        if (str != null){
+                            return null;
+                        }
+                        meters.rebuild();
+                        //成功获取到锁
+                        R r = meters.recordDbFallback(() -> dbFallback.apply(id));
+                        //数据库本身不存在数据
+                        if (r == null){
+                            //缓存空数据
+                            this.set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+                            return null;
+                        }
+                        //数据库存在数据
+                        this.set(key, r, timeout, unit);
+                        return r;
+                    }finally {
+                        distributedLock.unlock();
+                        //唤醒等待重建的线程
+                        rebuildSignal.signal(key);
+                    }
+                }
+                //获取分布式锁失败，先注册信号再读取缓存，避免错过重建完成的信号
+                CompletableFuture<Void> signal = rebuildSignal.register(key);
+                str = this.getRedisValue(key);
+                if (str != null){
+                    //其他线程已经重建完成
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return StrUtil.isNotBlank(str) ? this.getResult(str, type) : null;
+                }
+                long remaining = deadline - System.nanoTime();
+                //等待超时，降级直接查询数据库
+                if (remaining <= 0){
+                    logger.warn("query data with mutex wait timeout, fallback to db|{}", key);
+                    meters.waitTimeout();
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return meters.recordDbFallback(() -> dbFallback.apply(id));
+                }
+                rebuildSignal.await(key, signal, Math.min(remaining, REBUILD_WAIT_NANOS), TimeUnit.NANOSECONDS);
             }
-            //数据库存在数据
-            this.set(key, r, timeout, unit);
         } catch (InterruptedException e) {
             logger.error("query data with mutex |{}", e.getMessage());
             throw new RuntimeException(e);
-        }finally {
-            distributedLock.unlock();
         }
-        return r;
     }
 
     @Override
     public <R> R queryWithMutexWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.queryWithMutex(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
+    }
+
+    @Override
+    public <R, ID> List<R> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到Redis中的数据key
-        String key = this.getKey(keyPrefix);
+        String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.MUTEX, keyPrefix);
+        //一次脚本调用完成读取缓存或者抢占重建令牌
+        if (cacheMutexScripts != null){
+            return this.queryWithMutexScript(key, id, (value) -> this.getResultList(value, type), dbFallback, timeout, unit, meters);
+        }
         //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
+        String str = this.getCacheValue(key);
         if (StrUtil.isNotBlank(str)){
+            meters.hit();
             //存在数据，直接返回
-            return this.getResult(str, type);
+            return this.getResultList(str, type);
         }
         //缓存了空字符串
         if (str != null){
+            meters.nullHit();
             return null;
         }
-        String lockKey = this.getLockKey(key);
-        R r = null;
-        //获取分布式锁
+        meters.miss();
+        //同一个JVM内相同key的请求只有一个线程竞争分布式锁
+        return singleFlight.execute(key, () -> this.loadListWithMutex(key, id, type, dbFallback, timeout, unit, meters));
+    }
+
+    /**
+     * 竞争分布式锁重建集合缓存，未获取到锁时等待重建完成
+     */
+    private <R, ID> List<R> loadListWithMutex(String key, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit, CacheMeters meters) {
+        String str;
+        String lockKey = cacheValueCodec.getLockKey(key);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(rebuildMaxWaitMillis);
+        // 获取分布式锁
         DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
         try {
-            boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
-            if (!isLock){
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                return queryWithMutexWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
-            }
-            //获取锁成功, Double Check
-            str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)){
-                //存在数据，直接返回
-                return this.getResult(str, type);
-            }
-            r = dbFallback.get();
-            //数据库本身不存在数据
-            if (r == null){
-                //缓存空数据
-                this.set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
+            while (true){
+                boolean isLock = distributedLock.tryLock();
+                if (isLock){
+                    try{
+                        //获取锁成功, Double Check
+                        str = this.getRedisValue(key);
+                        if (StrUtil.isNotBlank(str)){
+                            //存在数据，直接返回
+                            return this.getResultList(str, type);
+                        }
+                        if (str != null){
+                            return null;
+                        }
+                        meters.rebuild();
+                        List<R> list = meters.recordDbFallback(() -> dbFallback.apply(id));
+                        //数据库本身不存在数据
+                        if (list == null){
+                            //缓存空数据
+                            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+                            return null;
+                        }
+                        //数据库存在数据
+                        this.set(key, list, timeout, unit);
+                        return list;
+                    }finally {
+                        distributedLock.unlock();
+                        //唤醒等待重建的线程
+                        rebuildSignal.signal(key);
+                    }
+                }
+                //获取分布式锁失败，先注册信号再读取缓存，避免错过重建完成的信号
+                CompletableFuture<Void> signal = rebuildSignal.register(key);
+                str = this.getRedisValue(key);
+                if (str != null){
+                    //其他线程已经重建完成
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return StrUtil.isNotBlank(str) ? this.getResultList(str, type) : null;
+                }
+                long remaining = deadline - System.nanoTime();
+                //等待超时，降级直接查询数据库
+                if (remaining <= 0){
+                    logger.warn("query data with mutex list wait timeout, fallback to db|{}", key);
+                    meters.waitTimeout();
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return meters.recordDbFallback(() -> dbFallback.apply(id));
+                }
+                rebuildSignal.await(key, signal, Math.min(remaining, REBUILD_WAIT_NANOS), TimeUnit.NANOSECONDS);
             }
-            //数据库存在数据
-            this.set(key, r, timeout, unit);
         } catch (InterruptedException e) {
-            logger.error("query data with mutex |{}", e.getMessage());
+            logger.error("query data with mutex list |{}", e.getMessage());
             throw new RuntimeException(e);
-        }finally {
-            distributedLock.unlock();
         }
-        return r;
     }
 
-    @Override
-    public <R, ID> List<R> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
-        //获取存储到Redis中的数据key
-        String key = this.getKey(keyPrefix, id);
-        //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
+    /**
+     * 基于Lua脚本的互斥重建，命中时一次网络往返，未命中时抢占到令牌的线程再执行一次写入缓存并释放令牌的脚本
+     * @param parser 解析缓存数据
+     */
+    private <T, ID> T queryWithMutexScript(String key, ID id, Function<String, T> parser, Function<ID, T> dbFallback, Long timeout, TimeUnit unit, CacheMeters meters){
+        String token = this.nextToken();
+        CacheMutexScripts.Claim[] claim = new CacheMutexScripts.Claim[1];
+        //热点key优先读取本地副本，否则一次脚本调用完成读取缓存或者抢占重建令牌
+        String str = this.getCacheValue(key, (k) -> {
+            claim[0] = cacheMutexScripts.getOrClaim(k, token);
+            return claim[0].isHit() ? cacheValueCodec.decompress(claim[0].getValue()) : null;
+        });
+        if (str == null){
+            meters.miss();
+            //抢占到令牌，查询数据库重建缓存
+            if (claim[0].isClaimed()){
+                return this.rebuildWithToken(key, id, dbFallback, timeout, unit, token, meters);
+            }
+            //其他线程正在重建，同一个JVM内相同key的请求合并等待
+            return singleFlight.execute(key, () -> this.awaitScriptRebuild(key, id, parser, dbFallback, timeout, unit, meters));
+        }
         if (StrUtil.isNotBlank(str)){
-            //存在数据，直接返回
-            return this.getResultList(str, type);
+            meters.hit();
+            return parser.apply(str);
         }
         //缓存了空字符串
-        if (str != null){
-            return null;
-        }
-        String lockKey = this.getLockKey(key);
-        List<R> list = null;
-        // 获取分布式锁
-        DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
+        meters.nullHit();
+        return null;
+    }
+
+    /**
+     * 等待其他线程重建缓存，令牌释放后仍未写入缓存时重新抢占令牌
+     */
+    private <T, ID> T awaitScriptRebuild(String key, ID id, Function<String, T> parser, Function<ID, T> dbFallback, Long timeout, TimeUnit unit, CacheMeters meters){
+        String token = this.nextToken();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(rebuildMaxWaitMillis);
         try {
-            boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
-            if (!isLock){
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                //重试
-                return queryWithMutexList(keyPrefix, id, type, dbFallback, timeout, unit);
-            }
-            //获取锁成功, Double Check
-            str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)){
-                //存在数据，直接返回
-                return this.getResultList(str, type);
-            }
-            list = dbFallback.apply(id);
-            //数据库本身不存在数据
-            if (list == null){
-                //缓存空数据
-                redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
+            while (true){
+                //先注册信号再执行脚本，避免错过重建完成的信号
+                CompletableFuture<Void> signal = rebuildSignal.register(key);
+                CacheMutexScripts.Claim claim = cacheMutexScripts.getOrClaim(key, token);
+                if (claim.isHit()){
+                    meters.recordLockWait(System.nanoTime() - start);
+                    String str = cacheValueCodec.decompress(claim.getValue());
+                    return StrUtil.isNotBlank(str) ? parser.apply(str) : null;
+                }
+                if (claim.isClaimed()){
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return this.rebuildWithToken(key, id, dbFallback, timeout, unit, token, meters);
+                }
+                long remaining = deadline - System.nanoTime();
+                //等待超时，降级直接查询数据库
+                if (remaining <= 0){
+                    logger.warn("query data with mutex script wait timeout, fallback to db|{}", key);
+                    meters.waitTimeout();
+                    meters.recordLockWait(System.nanoTime() - start);
+                    return meters.recordDbFallback(() -> dbFallback.apply(id));
+                }
+                rebuildSignal.await(key, signal, Math.min(remaining, REBUILD_WAIT_NANOS), TimeUnit.NANOSECONDS);
             }
-            //数据库存在数据
-            this.set(key, list, timeout, unit);
-
         } catch (InterruptedException e) {
-            logger.error("query data with mutex list |{}", e.getMessage());
+            logger.error("query data with mutex script |{}", e.getMessage());
             throw new RuntimeException(e);
-        }finally {
-            distributedLock.unlock();
         }
-        return list;
+    }
+
+    /**
+     * 持有令牌的线程查询数据库，写入缓存的同时释放令牌
+     */
+    private <T, ID> T rebuildWithToken(String key, ID id, Function<ID, T> dbFallback, Long timeout, TimeUnit unit, String token, CacheMeters meters){
+        boolean released = false;
+        try {
+            meters.rebuild();
+            T r = meters.recordDbFallback(() -> dbFallback.apply(id));
+            //数据库本身不存在数据时缓存空数据
+            String value = r == null ? EMPTY_VALUE : cacheValueCodec.encodeValue(key, r);
+            long timeoutMillis = r == null ? TimeUnit.SECONDS.toMillis(CACHE_NULL_TTL) : unit.toMillis(timeout);
+            boolean written = cacheMutexScripts.setAndRelease(key, value, timeoutMillis, token);
+            released = true;
+            if (written){
+                this.publishInvalidation(key);
+            }else{
+                //令牌已经过期并被其他线程抢占，不覆盖其他线程写入的数据
+                logger.warn("rebuild token expired before write, skip|{}", key);
+            }
+            return r;
+        } finally {
+            //查询数据库失败时只释放令牌
+            if (!released){
+                cacheMutexScripts.release(key, token);
+            }
+            //唤醒等待重建的线程
+            rebuildSignal.signal(key);
+        }
     }
 
     @Override
     public <R> List<R> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.queryWithMutexList(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
+    }
+
+    @Override
+    public <R, ID> R queryWithEarlyExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到Redis中的数据key
-        String key = this.getKey(keyPrefix);
+        String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.EARLY_EXPIRE, keyPrefix);
         //从Redis获取缓存数据
-        String str = redisTemplate.opsForValue().get(key);
-        if (StrUtil.isNotBlank(str)){
-            //存在数据，直接返回
-            return this.getResultList(str, type);
+        String str = this.getCacheValue(key);
+        //命中并且没有提前过期，直接返回数据
+        if (LogicalExpireEnvelope.isEnvelope(str) && !LogicalExpireEnvelope.isExpiredEarly(str, System.currentTimeMillis(), earlyExpireBeta)){
+            this.recordHit(meters, str);
+            return LogicalExpireEnvelope.getFlag(str) == LogicalExpireEnvelope.FLAG_DATA ? this.getResult(cacheValueCodec.getPayload(str), type) : null;
         }
-        //缓存了空字符串
-        if (str != null){
-            return null;
+        if (LogicalExpireEnvelope.isEnvelope(str)){
+            meters.stale();
+        }else{
+            meters.miss();
         }
-        String lockKey = this.getLockKey(key);
-        List<R> list = null;
-        // 获取分布式锁
-        DistributedLock distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        try {
-            boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
-            if (!isLock){
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                //重试
-                return queryWithMutexListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
+        //未命中或者提前过期，同一个JVM内相同key的请求只重建一次
+        return singleFlight.execute(key, () -> this.recompute(key, id, dbFallback, timeout, unit, meters));
+    }
+
+    @Override
+    public <R> R queryWithEarlyExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.queryWithEarlyExpire(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
+    }
+
+    @Override
+    public <R, ID> List<R> queryWithEarlyExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        //获取存储到Redis中的数据key
+        String key = this.getKey(keyPrefix, id);
+        CacheMeters meters = cacheMetrics.get(CacheMetrics.Strategy.EARLY_EXPIRE, keyPrefix);
+        //从Redis获取缓存数据
+        String str = this.getCacheValue(key);
+        //命中并且没有提前过期，直接返回数据
+        if (LogicalExpireEnvelope.isEnvelope(str) && !LogicalExpireEnvelope.isExpiredEarly(str, System.currentTimeMillis(), earlyExpireBeta)){
+            this.recordHit(meters, str);
+            return LogicalExpireEnvelope.getFlag(str) == LogicalExpireEnvelope.FLAG_DATA ? this.getResultList(cacheValueCodec.getPayload(str), type) : null;
+        }
+        if (LogicalExpireEnvelope.isEnvelope(str)){
+            meters.stale();
+        }else{
+            meters.miss();
+        }
+        //未命中或者提前过期，同一个JVM内相同key的请求只重建一次
+        return singleFlight.execute(key, () -> this.recompute(key, id, dbFallback, timeout, unit, meters));
+    }
+
+    @Override
+    public <R> List<R> queryWithEarlyExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.queryWithEarlyExpireList(keyPrefix, null, type, (id) -> dbFallback.get(), timeout, unit);
+    }
+
+    /**
+     * 查询数据库并记录重建耗时，过期时间同时作为物理过期时间写入缓存
+     */
+    private <R, ID> R recompute(String key, ID id, Function<ID, R> dbFallback, Long timeout, TimeUnit unit, CacheMeters meters){
+        long start = System.currentTimeMillis();
+        meters.rebuild();
+        R r = meters.recordDbFallback(() -> dbFallback.apply(id));
+        long now = System.currentTimeMillis();
+        long timeoutMillis = r == null ? TimeUnit.SECONDS.toMillis(CACHE_NULL_TTL) : unit.toMillis(timeout);
+        String envelope = cacheValueCodec.getEnvelope(key, r, now + timeoutMillis, now - start);
+        redisTemplate.opsForValue().set(key, envelope, timeoutMillis, TimeUnit.MILLISECONDS);
+        this.publishInvalidation(key);
+        return r;
+    }
+
+    //按照数据标识记录命中的是业务数据还是空数据
+    private void recordHit(CacheMeters meters, String envelope){
+        if (LogicalExpireEnvelope.getFlag(envelope) == LogicalExpireEnvelope.FLAG_NULL){
+            meters.nullHit();
+        }else{
+            meters.hit();
+        }
+    }
+
+    //重建令牌，同一个节点内递增
+    private String nextToken(){
+        return tokenPrefix.concat(Long.toHexString(tokenSequence.incrementAndGet()));
+    }
+
+    //转义SCAN匹配规则中的特殊字符
+    private String escapePattern(String str){
+        StringBuilder builder = new StringBuilder(str.length() + 8);
+        for (int i = 0; i < str.length(); i++){
+            char c = str.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\'){
+                builder.append('\\');
             }
-            //获取锁成功, Double Check
-            str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)){
-                //存在数据，直接返回
-                return this.getResultList(str, type);
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 获取缓存数据，压缩过的数据透明解压，每次对外的查询只调用一次，记录访问次数并优先读取热点key的本地副本
+     */
+    private String getCacheValue(String key){
+        return this.getCacheValue(key, this::getRedisValue);
+    }
+
+    /**
+     * 获取缓存数据，本地副本不存在时通过reader读取
+     * @param reader 读取缓存数据，不存在时返回null
+     */
+    private String getCacheValue(String key, Function<String, String> reader){
+        if (hotKeyDetector == null){
+            return reader.apply(key);
+        }
+        boolean hot = hotKeyDetector.record(key);
+        String value = hot ? hotKeyDetector.getIfPresent(key) : null;
+        if (value != null){
+            return value;
+        }
+        value = reader.apply(key);
+        //热点key复制到本地副本
+        if (hot && value != null){
+            hotKeyDetector.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 直接从Redis读取缓存数据，用于加锁后的Double Check和等待重建，不记录访问次数，也不读取可能已经过期的本地副本
+     */
+    private String getRedisValue(String key){
+        return cacheValueCodec.decompress(redisTemplate.opsForValue().get(key));
+    }
+
+    /**
+     * 批量序列化要缓存的数据，数据量较大时并行序列化
+     * @param encoder 根据缓存key和value生成要保存的字符串
+     */
+    private Map<String, String> encodeValues(Map<String, Object> values, BiFunction<String, Object, String> encoder){
+        if (values.size() < PARALLEL_ENCODE_THRESHOLD){
+            Map<String, String> cacheValues = new LinkedHashMap<>(values.size());
+            values.forEach((key, value) -> cacheValues.put(key, encoder.apply(key, value)));
+            return cacheValues;
+        }
+        return values.entrySet().parallelStream().collect(Collectors.toMap(Map.Entry::getKey, (entry) -> encoder.apply(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * 按批通过管道写入，避免单个管道积压过多的命令和响应
+     */
+    private void batchPipelinedSet(Map<String, String> values, ToLongFunction<String> timeoutMillis){
+        Map<String, String> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()){
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= PIPELINE_BATCH_SIZE){
+                this.pipelinedSet(batch, timeoutMillis);
+                batch = new LinkedHashMap<>();
             }
-            list = dbFallback.get();
-            //数据库本身不存在数据
-            if (list == null){
-                //缓存空数据
-                redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
+        }
+        this.pipelinedSet(batch, timeoutMillis);
+    }
+
+    /**
+     * 通过管道批量写入缓存数据，并为每个key设置过期时长
+     * @param values 缓存key到缓存value的映射
+     * @param timeoutMillis 根据缓存key获取过期的毫秒数，必须大于0；为null时不过期，只用于逻辑过期数据
+     */
+    private void pipelinedSet(Map<String, String> values, ToLongFunction<String> timeoutMillis){
+        if (values.isEmpty()){
+            return;
+        }
+        RedisSerializer<String> serializer = redisTemplate.getStringSerializer();
+        redisTemplate.executePipelined((RedisCallback<Object>) (connection) -> {
+            for (Map.Entry<String, String> entry : values.entrySet()){
+                connection.stringCommands().set(serializer.serialize(entry.getKey()), serializer.serialize(entry.getValue()),
+                        this.getExpiration(entry.getKey(), timeoutMillis), RedisStringCommands.SetOption.upsert());
             }
-            //数据库存在数据
-            this.set(key, list, timeout, unit);
+            return null;
+        });
+        values.keySet().forEach(this::publishInvalidation);
+    }
 
-        } catch (InterruptedException e) {
-            logger.error("query data with mutex list |{}", e.getMessage());
-            throw new RuntimeException(e);
-        }finally {
-            distributedLock.unlock();
+    private Expiration getExpiration(String key, ToLongFunction<String> timeoutMillis){
+        if (timeoutMillis == null){
+            return Expiration.persistent();
         }
-        return list;
+        long millis = timeoutMillis.applyAsLong(key);
+        if (millis <= 0){
+            throw new IllegalArgumentException("timeout must be positive: " + key);
+        }
+        return Expiration.milliseconds(millis);
     }
 
-    //分布式锁Key
-    private String getLockKey(String key){
-        return key.concat(LOCK_SUFFIX);
+    //通知所有节点移除本地缓存
+    private void publishInvalidation(String key){
+        if (hotKeyDetector != null){
+            hotKeyDetector.evict(key);
+        }
+        if (cacheInvalidationPublisher != null){
+            cacheInvalidationPublisher.publish(key);
+        }
     }
 }
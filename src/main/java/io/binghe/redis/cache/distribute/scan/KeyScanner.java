@@ -0,0 +1,44 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.scan;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于SCAN命令按照游标分批扫描key，替代会阻塞Redis的KEYS命令，并按照相同的部署方式批量删除扫描到的key
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public interface KeyScanner {
+
+    /**
+     * 扫描匹配的key，返回的Stream按需拉取下一批数据，使用完毕后需要关闭以释放Redis连接
+     * @param pattern 匹配规则
+     * @param count 每次SCAN的COUNT参数
+     * @return key的Stream
+     */
+    Stream<String> scan(String pattern, int count);
+
+    /**
+     * 通过UNLINK批量删除key，在Redis后台线程中释放内存，不阻塞其他请求
+     * @param keys key集合
+     * @return 删除的key数量
+     */
+    long unlink(Collection<String> keys);
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.scan.redisson;
+
+import io.binghe.redis.cache.distribute.scan.KeyScanner;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 集群模式下基于Redisson扫描key，依次在每个主节点上执行SCAN，删除时按照槽位路由到对应的主节点
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "redis.arrange.type", havingValue = "cluster")
+public class RedissonKeyScanner implements KeyScanner {
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Override
+    public Stream<String> scan(String pattern, int count) {
+        return redissonClient.getKeys().getKeysStreamByPattern(pattern, count);
+    }
+
+    @Override
+    public long unlink(Collection<String> keys) {
+        if (keys.isEmpty()){
+            return 0;
+        }
+        return redissonClient.getKeys().unlink(keys.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.script;
+
+import io.binghe.redis.lock.script.LockScripts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于Lua脚本的互斥重建，一次EVALSHA完成读取缓存或者抢占重建令牌，一次EVALSHA完成写入缓存并释放令牌，
+ * 缓存未命中时只需要两次网络往返。令牌与缓存key位于同一个slot，兼容集群模式
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.mutex.mode", havingValue = "script")
+public class CacheMutexScripts {
+    private final Logger logger = LoggerFactory.getLogger(CacheMutexScripts.class);
+
+    //重建令牌key的后缀，与Redisson分布式锁的数据结构不同，不能共用同一个key
+    private static final String TOKEN_SUFFIX = "_rebuild_token";
+    //脚本返回值的标识：命中缓存、抢占到令牌、其他线程正在重建
+    private static final char RESULT_HIT = 'V';
+    private static final char RESULT_CLAIMED = 'C';
+
+    //读取缓存，不存在时抢占重建令牌
+    private static final RedisScript<String> GET_OR_CLAIM_SCRIPT = RedisScript.of(
+            "local value = redis.call('get', KEYS[1]) " +
+            "if value then return 'V' .. value end " +
+            "if redis.call('set', KEYS[2], ARGV[1], 'NX', 'PX', ARGV[2]) then return 'C' end " +
+            "return 'W'", String.class);
+    //令牌仍然属于当前线程时写入缓存并释放令牌，令牌已经过期或者被其他线程抢占时不写入，避免覆盖新的数据
+    private static final RedisScript<Long> SET_AND_RELEASE_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[2]) ~= ARGV[3] then return 0 end " +
+            "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "redis.call('del', KEYS[2]) " +
+            "return 1", Long.class);
+
+    //重建令牌的租约时长，重建线程异常退出后令牌自动过期
+    @Value("${cache.rebuild.lock-lease-millis:10000}")
+    private long leaseMillis;
+
+    @Autowired
+    @Qualifier("stringRedisTemplate")
+    private StringRedisTemplate redisTemplate;
+
+    /**
+     * 启动时加载脚本，请求中直接使用EVALSHA
+     */
+    @PostConstruct
+    public void init(){
+        try {
+            redisTemplate.execute((RedisCallback<Void>) (connection) -> {
+                for (RedisScript<?> script : Arrays.asList(GET_OR_CLAIM_SCRIPT, SET_AND_RELEASE_SCRIPT, LockScripts.COMPARE_AND_DELETE)){
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            //加载失败时执行脚本会自动降级为EVAL
+            logger.warn("preload cache mutex scripts failed|{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读取缓存，不存在时抢占重建令牌
+     * @param key 缓存key
+     * @param token 当前线程的令牌
+     * @return 脚本执行结果
+     */
+    public Claim getOrClaim(String key, String token){
+        String result = redisTemplate.execute(GET_OR_CLAIM_SCRIPT, this.getKeys(key), token, String.valueOf(leaseMillis));
+        return new Claim(result);
+    }
+
+    /**
+     * 写入缓存并释放令牌
+     * @param key 缓存key
+     * @param value 要缓存的字符串
+     * @param timeoutMillis 过期时长，单位毫秒
+     * @param token 当前线程的令牌
+     * @return 是否写入，令牌已经不属于当前线程时返回false
+     */
+    public boolean setAndRelease(String key, String value, long timeoutMillis, String token){
+        Long result = redisTemplate.execute(SET_AND_RELEASE_SCRIPT, this.getKeys(key), value, String.valueOf(timeoutMillis), token);
+        return result != null && result == 1L;
+    }
+
+    /**
+     * 释放令牌
+     * @param key 缓存key
+     * @param token 当前线程的令牌
+     */
+    public void release(String key, String token){
+        redisTemplate.execute(LockScripts.COMPARE_AND_DELETE, Collections.singletonList(this.getTokenKey(key)), token);
+    }
+
+    private List<String> getKeys(String key){
+        return Arrays.asList(key, this.getTokenKey(key));
+    }
+
+    /**
+     * 令牌key与缓存key位于同一个slot：缓存key带有hash tag时直接拼接后缀，否则将缓存key作为hash tag
+     */
+    private String getTokenKey(String key){
+        int begin = key.indexOf('{');
+        if (begin >= 0){
+            int end = key.indexOf('}', begin + 1);
+            if (end > begin + 1){
+                return key.concat(TOKEN_SUFFIX);
+            }
+        }
+        return new StringBuilder(key.length() + TOKEN_SUFFIX.length() + 2).append('{').append(key).append('}').append(TOKEN_SUFFIX).toString();
+    }
+
+    /**
+     * 脚本执行结果
+     */
+    public static final class Claim {
+        private final String result;
+
+        private Claim(String result) {
+            this.result = result;
+        }
+
+        /**
+         * 是否命中缓存
+         */
+        public boolean isHit(){
+            return result != null && !result.isEmpty() && result.charAt(0) == RESULT_HIT;
+        }
+
+        /**
+         * 是否抢占到重建令牌
+         */
+        public boolean isClaimed(){
+            return result != null && !result.isEmpty() && result.charAt(0) == RESULT_CLAIMED;
+        }
+
+        /**
+         * 命中的缓存数据
+         */
+        public String getValue(){
+            return result.substring(1);
+        }
+    }
+}
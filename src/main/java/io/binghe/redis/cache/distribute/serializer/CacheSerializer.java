@@ -0,0 +1,53 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.serializer;
+
+import java.util.List;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 缓存数据序列化接口，负责缓存value与业务对象之间的相互转换
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public interface CacheSerializer {
+
+    /**
+     * 将要缓存的数据序列化成字符串，简单类型直接转换成字符串
+     * @param value 要缓存的数据
+     * @return 序列化后的字符串
+     */
+    String serialize(Object value);
+
+    /**
+     * 将缓存中的字符串或者已经解析过的对象转换成目标类型
+     * @param obj 缓存中的字符串或者已经解析过的对象
+     * @param type 目标类型
+     * @return 目标类型对象
+     * @param <R> 泛型
+     */
+    <R> R deserialize(Object obj, Class<R> type);
+
+    /**
+     * 将缓存中的字符串转换成目标类型的List集合
+     * @param str 缓存中的字符串
+     * @param type 集合元素类型
+     * @return 目标类型List集合
+     * @param <R> 泛型
+     */
+    <R> List<R> deserializeList(String str, Class<R> type);
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.serializer.hutool;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import io.binghe.redis.cache.distribute.conversion.TypeConversion;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于Hutool JSON的缓存序列化，默认的序列化方式
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.type.serializer", havingValue = "hutool", matchIfMissing = true)
+public class HutoolCacheSerializer implements CacheSerializer {
+
+    private static final HutoolCacheSerializer INSTANCE = new HutoolCacheSerializer();
+
+    /**
+     * 未注入序列化Bean时使用的默认实例
+     */
+    public static HutoolCacheSerializer getInstance(){
+        return INSTANCE;
+    }
+
+    @Override
+    public String serialize(Object value) {
+        return TypeConversion.isSimpleType(value) ? String.valueOf(value) : JSONUtil.toJsonStr(value);
+    }
+
+    @Override
+    public <R> R deserialize(Object obj, Class<R> type) {
+        if (obj == null){
+            return null;
+        }
+        //目标类型为简单类型时直接转换，不再检查字符串是否为JSON
+        if (TypeConversion.isSimpleClass(type) || TypeConversion.isSimpleType(obj)){
+            return TypeConversion.convert(obj, type);
+        }
+        //json字符串直接解析，不再序列化后重复解析
+        if (obj instanceof String){
+            return JSONUtil.toBean((String) obj, type);
+        }
+        if (obj instanceof JSONObject){
+            return JSONUtil.toBean((JSONObject) obj, type);
+        }
+        return JSONUtil.toBean(JSONUtil.toJsonStr(obj), type);
+    }
+
+    @Override
+    public <R> List<R> deserializeList(String str, Class<R> type) {
+        if (StrUtil.isEmpty(str)){
+            return null;
+        }
+        return JSONUtil.toList(JSONUtil.parseArray(str), type);
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.serializer.jackson;
+
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.binghe.redis.cache.distribute.conversion.TypeConversion;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于Jackson的缓存序列化，按照类型缓存ObjectReader，避免每次解析都重新查找反序列化器
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.type.serializer", havingValue = "jackson")
+public class JacksonCacheSerializer implements CacheSerializer {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    //对象类型的ObjectReader
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    //List集合类型的ObjectReader
+    private final Map<Class<?>, ObjectReader> listReaders = new ConcurrentHashMap<>();
+
+    public JacksonCacheSerializer() {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.objectMapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+        this.objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.objectWriter = objectMapper.writer();
+    }
+
+    @Override
+    public String serialize(Object value) {
+        if (TypeConversion.isSimpleType(value)){
+            return String.valueOf(value);
+        }
+        try {
+            return objectWriter.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public <R> R deserialize(Object obj, Class<R> type) {
+        if (obj == null){
+            return null;
+        }
+        //目标类型为简单类型时直接转换，不再检查字符串是否为JSON
+        if (TypeConversion.isSimpleClass(type) || TypeConversion.isSimpleType(obj)){
+            return TypeConversion.convert(obj, type);
+        }
+        if (obj instanceof String){
+            try {
+                return this.getReader(type).readValue((String) obj);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        //已经解析过的对象，例如Map，直接转换
+        return objectMapper.convertValue(obj, type);
+    }
+
+    @Override
+    public <R> List<R> deserializeList(String str, Class<R> type) {
+        if (StrUtil.isEmpty(str)){
+            return null;
+        }
+        try {
+            return this.getListReader(type).readValue(str);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ObjectReader getReader(Class<?> type){
+        //先get再computeIfAbsent，命中时不加锁
+        ObjectReader reader = readers.get(type);
+        return reader != null ? reader : readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    private ObjectReader getListReader(Class<?> type){
+        ObjectReader reader = listReaders.get(type);
+        return reader != null ? reader : listReaders.computeIfAbsent(type, (k) -> objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, k)));
+    }
+}
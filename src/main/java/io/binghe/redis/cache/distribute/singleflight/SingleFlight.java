@@ -0,0 +1,91 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.singleflight;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 同一个JVM内的请求合并，相同key并发未命中缓存时只有一个线程执行加载，其他线程共享加载结果，
+ * 加载过程中的异常同样会传递给所有等待的线程。注意：所有线程拿到的是同一个结果对象，不要修改返回的对象
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class SingleFlight {
+
+    //正在执行的加载任务
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载任务，相同key已经存在正在执行的任务时等待该任务的结果
+     * @param key 缓存key
+     * @param loader 加载数据的逻辑
+     * @return 加载的数据
+     * @param <T> 数据类型
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader){
+        CompletableFuture<Object> existing = calls.get(key);
+        if (existing == null){
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            existing = calls.putIfAbsent(key, call);
+            if (existing == null){
+                return this.doExecute(key, call, loader);
+            }
+        }
+        return (T) this.join(existing);
+    }
+
+    /**
+     * 当前正在执行加载任务的key的数量
+     */
+    public int inFlight(){
+        return calls.size();
+    }
+
+    private <T> T doExecute(String key, CompletableFuture<Object> call, Supplier<T> loader){
+        try{
+            T result = loader.get();
+            call.complete(result);
+            return result;
+        }catch (Throwable e){
+            call.completeExceptionally(e);
+            throw e;
+        }finally {
+            //加载完成后立即移除，后续请求重新读取缓存
+            calls.remove(key, call);
+        }
+    }
+
+    private Object join(CompletableFuture<Object> call){
+        try{
+            return call.join();
+        }catch (CompletionException e){
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
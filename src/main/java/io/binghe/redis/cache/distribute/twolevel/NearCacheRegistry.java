@@ -0,0 +1,216 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.twolevel;
+
+import cn.hutool.core.util.StrUtil;
+import io.binghe.redis.cache.local.LocalCacheService;
+import io.binghe.redis.cache.local.guava.impl.GuavaLocalCacheService;
+import io.binghe.redis.config.NearCacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 二级缓存的本地缓存区域注册表，每个key前缀对应一个独立容量和过期时长的本地缓存。
+ * 移除本地缓存时先递增key的失效代数，写入本地缓存时只有加载前后的失效代数一致才写入，
+ * 避免加载期间收到的失效通知被随后写入的旧数据覆盖
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.near.enabled", havingValue = "true")
+public class NearCacheRegistry {
+    //失效代数的分段数量，必须为2的幂，不同key落在同一分段时只会多跳过几次写入
+    private static final int GENERATION_STRIPES = 4096;
+
+    @Autowired
+    private NearCacheProperties nearCacheProperties;
+
+    //按照前缀长度倒序排列的区域，保证最长前缀优先匹配
+    private final List<NearCacheRegion> regions = new ArrayList<>();
+    //keyPrefix到区域的解析结果，keyPrefix数量有限，可以放心缓存
+    private final Map<String, Optional<NearCacheRegion>> prefixRegions = new ConcurrentHashMap<>();
+    //按照key分段的失效代数
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    //按照前缀移除时递增，所有key的失效代数都会变化
+    private final AtomicLong prefixGeneration = new AtomicLong();
+
+    @PostConstruct
+    public void init(){
+        for (NearCacheProperties.Region region : nearCacheProperties.getRegions()){
+            if (StrUtil.isEmpty(region.getKeyPrefix())){
+                continue;
+            }
+            LocalCacheService<String, Object> localCache = new GuavaLocalCacheService<>(region.getMaximumSize(), region.getExpireSeconds(), TimeUnit.SECONDS);
+            regions.add(new NearCacheRegion(region.getKeyPrefix(), localCache));
+        }
+        regions.sort(Comparator.comparingInt((NearCacheRegion r) -> r.getKeyPrefix().length()).reversed());
+    }
+
+    /**
+     * 根据queryWith*系列方法的keyPrefix获取本地缓存区域
+     * @param keyPrefix 缓存key的前缀
+     * @return 本地缓存，未配置区域时返回null
+     */
+    public LocalCacheService<String, Object> getRegionByPrefix(String keyPrefix){
+        Optional<NearCacheRegion> region = prefixRegions.get(keyPrefix);
+        if (region == null){
+            region = prefixRegions.computeIfAbsent(keyPrefix, (k) -> Optional.ofNullable(this.match(k)));
+        }
+        return region.map(NearCacheRegion::getLocalCache).orElse(null);
+    }
+
+    /**
+     * 根据完整的缓存key获取本地缓存区域
+     * @param key 缓存key
+     * @return 本地缓存，未配置区域时返回null
+     */
+    public LocalCacheService<String, Object> getRegionByKey(String key){
+        NearCacheRegion region = this.match(key);
+        return region == null ? null : region.getLocalCache();
+    }
+
+    /**
+     * 获取key当前的失效代数，在加载数据之前调用
+     * @param key 缓存key
+     * @return 失效代数
+     */
+    public long getGeneration(String key){
+        return generations.get(this.getStripe(key)) + prefixGeneration.get();
+    }
+
+    /**
+     * 加载数据之后写入本地缓存，加载期间key已经失效时不写入
+     * @param localCache 本地缓存
+     * @param key 缓存key
+     * @param value 数据
+     * @param generation 加载数据之前获取的失效代数
+     */
+    public void putIfUnchanged(LocalCacheService<String, Object> localCache, String key, Object value, long generation){
+        if (this.getGeneration(key) != generation){
+            return;
+        }
+        localCache.put(key, value);
+        //写入的同时收到失效通知，失效通知可能先于写入完成移除，这里再移除一次
+        if (this.getGeneration(key) != generation){
+            localCache.remove(key);
+        }
+    }
+
+    /**
+     * 从本地缓存中移除指定的key，先递增失效代数再移除，
+     * 按照前缀写入的数据和按照key写入的数据可能位于不同区域，从所有前缀匹配的区域中移除
+     * @param key 缓存key
+     */
+    public void evict(String key){
+        if (key == null){
+            return;
+        }
+        generations.incrementAndGet(this.getStripe(key));
+        for (NearCacheRegion region : regions){
+            if (key.startsWith(region.getKeyPrefix())){
+                region.getLocalCache().remove(key);
+            }
+        }
+    }
+
+    /**
+     * 批量从本地缓存中移除key，按照区域分组后批量移除
+     * @param keys 缓存key集合
+     */
+    public void evictAll(Collection<String> keys){
+        if (keys == null || keys.isEmpty()){
+            return;
+        }
+        Map<LocalCacheService<String, Object>, List<String>> regionKeys = new HashMap<>();
+        for (String key : keys){
+            generations.incrementAndGet(this.getStripe(key));
+            for (NearCacheRegion region : regions){
+                if (key.startsWith(region.getKeyPrefix())){
+                    regionKeys.computeIfAbsent(region.getLocalCache(), (k) -> new ArrayList<>()).add(key);
+                }
+            }
+        }
+        regionKeys.forEach(LocalCacheService::removeAll);
+    }
+
+    /**
+     * 从本地缓存中移除指定前缀的所有key
+     * @param keyPrefix 缓存key的前缀
+     */
+    public void evictByPrefix(String keyPrefix){
+        if (StrUtil.isEmpty(keyPrefix)){
+            return;
+        }
+        prefixGeneration.incrementAndGet();
+        for (NearCacheRegion region : regions){
+            //区域的前缀和要移除的前缀存在包含关系时，区域中才可能存在要移除的key
+            if (region.getKeyPrefix().startsWith(keyPrefix) || keyPrefix.startsWith(region.getKeyPrefix())){
+                region.getLocalCache().removeIf((key) -> key.startsWith(keyPrefix));
+            }
+        }
+    }
+
+    private int getStripe(String key){
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private NearCacheRegion match(String key){
+        for (NearCacheRegion region : regions){
+            if (key.startsWith(region.getKeyPrefix())){
+                return region;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 本地缓存区域
+     */
+    private static class NearCacheRegion {
+        private final String keyPrefix;
+        private final LocalCacheService<String, Object> localCache;
+
+        NearCacheRegion(String keyPrefix, LocalCacheService<String, Object> localCache) {
+            this.keyPrefix = keyPrefix;
+            this.localCache = localCache;
+        }
+
+        String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        LocalCacheService<String, Object> getLocalCache() {
+            return localCache;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.twolevel;
+
+import io.binghe.redis.cache.distribute.DistributeCacheService;
+import io.binghe.redis.cache.distribute.key.CacheKeyGenerator;
+import io.binghe.redis.cache.distribute.serializer.CacheSerializer;
+import io.binghe.redis.cache.local.LocalCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 二级缓存，优先读取进程内的本地缓存，本地缓存未命中时再访问Redis分布式缓存
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "cache.near.enabled", havingValue = "true")
+public class TwoLevelDistributeCacheService implements DistributeCacheService {
+
+    //本地缓存中的空数据标识，Guava缓存不能存储null
+    private static final Object NULL_VALUE = new Object();
+
+    @Autowired
+    @Qualifier("redisDistributeCacheService")
+    private DistributeCacheService distributeCacheService;
+
+    @Autowired
+    private NearCacheRegistry nearCacheRegistry;
+
+    @Override
+    public CacheSerializer getCacheSerializer() {
+        return distributeCacheService.getCacheSerializer();
+    }
+
+    @Override
+    public CacheKeyGenerator getCacheKeyGenerator() {
+        //本地缓存和失效通知使用的key必须与Redis中的key一致
+        return distributeCacheService.getCacheKeyGenerator();
+    }
+
+    @Override
+    public void set(String key, Object value) {
+        distributeCacheService.set(key, value);
+        nearCacheRegistry.evict(key);
+    }
+
+    @Override
+    public void set(String key, Object value, Long timeout, TimeUnit unit) {
+        distributeCacheService.set(key, value, timeout, unit);
+        nearCacheRegistry.evict(key);
+    }
+
+    @Override
+    public void multiSet(Map<String, Object> values, Long timeout, TimeUnit unit) {
+        distributeCacheService.multiSet(values, timeout, unit);
+        nearCacheRegistry.evictAll(values.keySet());
+    }
+
+    @Override
+    public void multiSet(Map<String, Object> values, ToLongFunction<String> timeout, TimeUnit unit) {
+        distributeCacheService.multiSet(values, timeout, unit);
+        nearCacheRegistry.evictAll(values.keySet());
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        Boolean result = distributeCacheService.expire(key, timeout, unit);
+        nearCacheRegistry.evict(key);
+        return result;
+    }
+
+    @Override
+    public void setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit) {
+        distributeCacheService.setWithLogicalExpire(key, value, timeout, unit);
+        nearCacheRegistry.evict(key);
+    }
+
+    @Override
+    public void multiSetWithLogicalExpire(Map<String, Object> values, Long timeout, TimeUnit unit) {
+        distributeCacheService.multiSetWithLogicalExpire(values, timeout, unit);
+        nearCacheRegistry.evictAll(values.keySet());
+    }
+
+    @Override
+    public String get(String key) {
+        LocalCacheService<String, Object> localCache = nearCacheRegistry.getRegionByKey(key);
+        if (localCache == null){
+            return distributeCacheService.get(key);
+        }
+        Object value = localCache.getIfPresent(key);
+        if (value instanceof String){
+            return (String) value;
+        }
+        long generation = nearCacheRegistry.getGeneration(key);
+        String str = distributeCacheService.get(key);
+        if (str != null){
+            nearCacheRegistry.putIfUnchanged(localCache, key, str, generation);
+        }
+        return str;
+    }
+
+    @Override
+    public <T> T getObject(String key, Class<T> targetClass) {
+        LocalCacheService<String, Object> localCache = nearCacheRegistry.getRegionByKey(key);
+        if (localCache == null){
+            return distributeCacheService.getObject(key, targetClass);
+        }
+        Object value = localCache.getIfPresent(key);
+        if (targetClass.isInstance(value)){
+            return targetClass.cast(value);
+        }
+        long generation = nearCacheRegistry.getGeneration(key);
+        T t = distributeCacheService.getObject(key, targetClass);
+        if (t != null){
+            nearCacheRegistry.putIfUnchanged(localCache, key, t, generation);
+        }
+        return t;
+    }
+
+    @Override
+    public List<String> multiGet(Collection<String> keys) {
+        List<String> result = new ArrayList<>(keys.size());
+        List<String> missKeys = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        List<Long> missGenerations = new ArrayList<>();
+        for (String key : keys){
+            LocalCacheService<String, Object> localCache = nearCacheRegistry.getRegionByKey(key);
+            Object value = localCache == null ? null : localCache.getIfPresent(key);
+            if (value instanceof String){
+                result.add((String) value);
+            }else{
+                missIndexes.add(result.size());
+                missKeys.add(key);
+                missGenerations.add(nearCacheRegistry.getGeneration(key));
+                result.add(null);
+            }
+        }
+        if (missKeys.isEmpty()){
+            return result;
+        }
+        List<String> values = distributeCacheService.multiGet(missKeys);
+        for (int i = 0; i < missKeys.size(); i++){
+            String value = values == null ? null : values.get(i);
+            result.set(missIndexes.get(i), value);
+            LocalCacheService<String, Object> localCache = nearCacheRegistry.getRegionByKey(missKeys.get(i));
+            if (localCache != null && value != null){
+                nearCacheRegistry.putIfUnchanged(localCache, missKeys.get(i), value, missGenerations.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> keys(String pattern) {
+        return distributeCacheService.keys(pattern);
+    }
+
+    @Override
+    public Stream<String> scan(String pattern, int count) {
+        return distributeCacheService.scan(pattern, count);
+    }
+
+    @Override
+    public long evictByPrefix(String keyPrefix, int batchSize, double permitsPerSecond, LongConsumer progress) {
+        //Redis删除完成后通过失效总线移除所有节点的本地缓存
+        return distributeCacheService.evictByPrefix(keyPrefix, batchSize, permitsPerSecond, progress);
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        Boolean result = distributeCacheService.delete(key);
+        nearCacheRegistry.evict(key);
+        return result;
+    }
+
+    @Override
+    public <R, ID> R queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, id, type, () -> distributeCacheService.queryWithPassThrough(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R, ID> Map<ID, R> multiQueryWithPassThrough(String keyPrefix, Collection<ID> ids, Class<R> type, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit) {
+        LocalCacheService<String, Object> localCache = nearCacheRegistry.getRegionByPrefix(keyPrefix);
+        if (localCache == null || ids == null || ids.isEmpty()){
+            return distributeCacheService.multiQueryWithPassThrough(keyPrefix, ids, type, dbFallback, timeout, unit);
+        }
+        Map<ID, Object> localValues = new LinkedHashMap<>(ids.size());
+        List<ID> missIds = new ArrayList<>();
+        List<String> missKeys = new ArrayList<>();
+        List<Long> missGenerations = new ArrayList<>();
+        for (ID id : ids){
+            String key = this.getKey(keyPrefix, id);
+            Object value = localCache.getIfPresent(key);
+            if (value == NULL_VALUE || type.isInstance(value)){
+                localValues.put(id, value);
+            }else{
+                missIds.add(id);
+                missKeys.add(key);
+                missGenerations.add(nearCacheRegistry.getGeneration(key));
+            }
+        }
+        Map<ID, R> missValues = missIds.isEmpty() ? Collections.emptyMap() : distributeCacheService.multiQueryWithPassThrough(keyPrefix, missIds, type, dbFallback, timeout, unit);
+        for (int i = 0; i < missIds.size(); i++){
+            R r = missValues.get(missIds.get(i));
+            nearCacheRegistry.putIfUnchanged(localCache, missKeys.get(i), r == null ? NULL_VALUE : r, missGenerations.get(i));
+        }
+        Map<ID, R> result = new LinkedHashMap<>(ids.size());
+        for (ID id : ids){
+            Object value = localValues.containsKey(id) ? localValues.get(id) : missValues.get(id);
+            if (value != null && value != NULL_VALUE){
+                result.put(id, (R) value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <R> R queryWithPassThroughWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, null, type, () -> distributeCacheService.queryWithPassThroughWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R, ID> List<R> queryWithPassThroughList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, id, () -> distributeCacheService.queryWithPassThroughList(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R> List<R> queryWithPassThroughListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, null, () -> distributeCacheService.queryWithPassThroughListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R, ID> R queryWithLogicalExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, id, type, () -> distributeCacheService.queryWithLogicalExpire(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R> R queryWithLogicalExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, null, type, () -> distributeCacheService.queryWithLogicalExpireWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R, ID> List<R> queryWithLogicalExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, id, () -> distributeCacheService.queryWithLogicalExpireList(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R> List<R> queryWithLogicalExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, null, () -> distributeCacheService.queryWithLogicalExpireListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R, ID> R queryWithMutex(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, id, type, () -> distributeCacheService.queryWithMutex(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R> R queryWithMutexWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, null, type, () -> distributeCacheService.queryWithMutexWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R, ID> List<R> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, id, () -> distributeCacheService.queryWithMutexList(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R> List<R> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, null, () -> distributeCacheService.queryWithMutexListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R, ID> R queryWithEarlyExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, id, type, () -> distributeCacheService.queryWithEarlyExpire(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R> R queryWithEarlyExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocal(keyPrefix, null, type, () -> distributeCacheService.queryWithEarlyExpireWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R, ID> List<R> queryWithEarlyExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, id, () -> distributeCacheService.queryWithEarlyExpireList(keyPrefix, id, type, dbFallback, timeout, unit));
+    }
+
+    @Override
+    public <R> List<R> queryWithEarlyExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        return this.getLocalList(keyPrefix, null, () -> distributeCacheService.queryWithEarlyExpireListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit));
+    }
+
+    /**
+     * 先查询本地缓存，未命中时通过loader查询Redis（以及数据库），并将结果写入本地缓存
+     */
+    private <R, ID> R getLocal(String keyPrefix, ID id, Class<R> type, Supplier<R> loader){
+        LocalCacheService<String, Object> localCache = nearCacheRegistry.getRegionByPrefix(keyPrefix);
+        //未配置本地缓存区域，直接访问Redis
+        if (localCache == null){
+            return loader.get();
+        }
+        String key = this.getKey(keyPrefix, id);
+        Object value = localCache.getIfPresent(key);
+        if (value == NULL_VALUE){
+            return null;
+        }
+        if (type.isInstance(value)){
+            return type.cast(value);
+        }
+        //加载之前获取失效代数，加载期间收到失效通知时不写入本地缓存
+        long generation = nearCacheRegistry.getGeneration(key);
+        R r = loader.get();
+        nearCacheRegistry.putIfUnchanged(localCache, key, r == null ? NULL_VALUE : r, generation);
+        return r;
+    }
+
+    /**
+     * 先查询本地缓存中的集合数据，未命中时通过loader查询Redis（以及数据库），并将结果写入本地缓存
+     */
+    @SuppressWarnings("unchecked")
+    private <R, ID> List<R> getLocalList(String keyPrefix, ID id, Supplier<List<R>> loader){
+        LocalCacheService<String, Object> localCache = nearCacheRegistry.getRegionByPrefix(keyPrefix);
+        if (localCache == null){
+            return loader.get();
+        }
+        String key = this.getKey(keyPrefix, id);
+        Object value = localCache.getIfPresent(key);
+        if (value == NULL_VALUE){
+            return null;
+        }
+        if (value instanceof List){
+            return (List<R>) value;
+        }
+        long generation = nearCacheRegistry.getGeneration(key);
+        List<R> list = loader.get();
+        nearCacheRegistry.putIfUnchanged(localCache, key, list == null ? NULL_VALUE : list, generation);
+        return list;
+    }
+}
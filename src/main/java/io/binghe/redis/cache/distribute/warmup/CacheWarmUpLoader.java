@@ -0,0 +1,62 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 缓存预热加载器，注册为Spring Bean后在应用启动时分页加载数据并批量写入缓存，
+ * 缓存key与queryWith*系列方法使用相同的keyPrefix和业务标识生成
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public interface CacheWarmUpLoader<ID, R> {
+
+    /**
+     * 缓存key的前缀，与queryWith*系列方法的keyPrefix相同
+     */
+    String getKeyPrefix();
+
+    /**
+     * 分页加载要预热的数据
+     * @param pageNo 页码，从1开始
+     * @param pageSize 每页的数据条数
+     * @return 业务标识到数据的映射，返回空或者不足一页时预热结束
+     */
+    Map<ID, R> load(int pageNo, int pageSize);
+
+    /**
+     * 缓存的时长，逻辑过期时为逻辑过期时长
+     */
+    long getTimeout();
+
+    /**
+     * 缓存时长的单位
+     */
+    default TimeUnit getUnit(){
+        return TimeUnit.SECONDS;
+    }
+
+    /**
+     * 是否以逻辑过期的方式缓存，配合queryWithLogicalExpire系列方法使用
+     */
+    default boolean isLogicalExpire(){
+        return false;
+    }
+}
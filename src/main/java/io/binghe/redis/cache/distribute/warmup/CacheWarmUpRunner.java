@@ -0,0 +1,135 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.warmup;
+
+import io.binghe.redis.cache.distribute.DistributeCacheService;
+import io.binghe.redis.config.CacheWarmUpProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 应用启动时执行缓存预热，Spring Boot在所有ApplicationRunner执行完成后才会将应用标记为就绪，
+ * 因此预热完成或者超过最长时长之前应用不会接收流量
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "cache.warm-up.enabled", havingValue = "true")
+public class CacheWarmUpRunner implements ApplicationRunner {
+
+    private final Logger logger = LoggerFactory.getLogger(CacheWarmUpRunner.class);
+
+    @Autowired
+    private DistributeCacheService distributeCacheService;
+
+    @Autowired
+    private CacheWarmUpProperties cacheWarmUpProperties;
+
+    @Autowired(required = false)
+    private List<CacheWarmUpLoader<?, ?>> loaders;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (loaders == null || loaders.isEmpty()){
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(cacheWarmUpProperties.getTimeoutSeconds());
+        //超时后通知加载器停止加载下一页
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        ExecutorService executor = this.newExecutor(Math.min(Math.max(1, cacheWarmUpProperties.getParallelism()), loaders.size()));
+        List<Future<Long>> futures = new ArrayList<>(loaders.size());
+        for (CacheWarmUpLoader<?, ?> loader : loaders){
+            futures.add(executor.submit(() -> this.warmUp(loader, deadline, cancelled)));
+        }
+        long total = 0;
+        try{
+            for (int i = 0; i < futures.size(); i++){
+                String keyPrefix = loaders.get(i).getKeyPrefix();
+                try{
+                    total += futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }catch (TimeoutException e){
+                    logger.warn("cache warm up timeout|{}", keyPrefix);
+                }catch (ExecutionException e){
+                    logger.error("cache warm up failed|{}|{}", keyPrefix, e.getCause().getMessage());
+                }
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }finally {
+            cancelled.set(true);
+            executor.shutdownNow();
+        }
+        logger.info("cache warm up finished|{} entries|{} ms", total, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 分页加载数据并批量写入缓存
+     * @return 写入缓存的数据条数
+     */
+    private <ID, R> long warmUp(CacheWarmUpLoader<ID, R> loader, long deadline, AtomicBoolean cancelled){
+        int pageSize = cacheWarmUpProperties.getPageSize();
+        long count = 0;
+        for (int pageNo = 1; !cancelled.get() && deadline - System.nanoTime() > 0; pageNo++){
+            Map<ID, R> page = loader.load(pageNo, pageSize);
+            if (page == null || page.isEmpty()){
+                break;
+            }
+            Map<String, Object> values = new LinkedHashMap<>(page.size() * 4 / 3 + 1);
+            page.forEach((id, r) -> values.put(distributeCacheService.getKey(loader.getKeyPrefix(), id), r));
+            if (loader.isLogicalExpire()){
+                distributeCacheService.multiSetWithLogicalExpire(values, loader.getTimeout(), loader.getUnit());
+            }else{
+                distributeCacheService.multiSet(values, loader.getTimeout(), loader.getUnit());
+            }
+            count += page.size();
+            if (page.size() < pageSize){
+                break;
+            }
+        }
+        logger.info("cache warm up|{}|{} entries", loader.getKeyPrefix(), count);
+        return count;
+    }
+
+    private ExecutorService newExecutor(int threads){
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, (r) -> {
+            Thread thread = new Thread(r, "cache-warm-up-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.binghe.redis.cache.local;
 
+import java.util.function.Predicate;
+
 /**
  * @author binghe(微信 : hacker_binghe)
  * @version 1.0.0
@@ -42,4 +44,16 @@ public interface LocalCacheService<K, V> {
      * @param key 缓存的key
      */
     void remove(K key);
+
+    /**
+     * 批量移除缓存中的数据
+     * @param keys 缓存的key集合
+     */
+    void removeAll(Iterable<? extends K> keys);
+
+    /**
+     * 移除满足条件的缓存数据
+     * @param predicate 判断key是否需要移除
+     */
+    void removeIf(Predicate<? super K> predicate);
 }
@@ -40,4 +40,8 @@ public class LocalGuavaCacheFactory {
     public static <K, V> Cache<K, V> getLocalCache(int initialCapacity, long duration){
         return CacheBuilder.newBuilder().initialCapacity(initialCapacity).concurrencyLevel(5).expireAfterWrite(duration, TimeUnit.SECONDS).build();
     }
+
+    public static <K, V> Cache<K, V> getLocalCache(long maximumSize, long duration, TimeUnit unit){
+        return CacheBuilder.newBuilder().initialCapacity(200).concurrencyLevel(5).maximumSize(maximumSize).expireAfterWrite(duration, unit).build();
+    }
 }
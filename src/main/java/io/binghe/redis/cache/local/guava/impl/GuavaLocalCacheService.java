@@ -22,6 +22,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
 /**
  * @author binghe(微信 : hacker_binghe)
  * @version 1.0.0
@@ -33,7 +36,21 @@ import org.springframework.stereotype.Service;
 @ConditionalOnProperty(name = "cache.type.local", havingValue = "guava")
 public class GuavaLocalCacheService<K, V> implements LocalCacheService<K, V> {
     //本地缓存，基于Guava实现
-    private final Cache<K, V> cache = LocalGuavaCacheFactory.getLocalCache();
+    private final Cache<K, V> cache;
+
+    public GuavaLocalCacheService() {
+        this.cache = LocalGuavaCacheFactory.getLocalCache();
+    }
+
+    /**
+     * 指定容量上限和过期时长的本地缓存
+     * @param maximumSize 最大缓存条数
+     * @param duration 写入后过期时长
+     * @param unit 时间单位
+     */
+    public GuavaLocalCacheService(long maximumSize, long duration, TimeUnit unit) {
+        this.cache = LocalGuavaCacheFactory.getLocalCache(maximumSize, duration, unit);
+    }
 
     @Override
     public void put(K key, V value) {
@@ -49,4 +66,14 @@ public class GuavaLocalCacheService<K, V> implements LocalCacheService<K, V> {
     public void remove(K key) {
         cache.invalidate(key);
     }
+
+    @Override
+    public void removeAll(Iterable<? extends K> keys) {
+        cache.invalidateAll(keys);
+    }
+
+    @Override
+    public void removeIf(Predicate<? super K> predicate) {
+        cache.asMap().keySet().removeIf(predicate);
+    }
 }
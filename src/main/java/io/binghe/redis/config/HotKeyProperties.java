@@ -0,0 +1,101 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 热点key探测配置
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.hot-key")
+public class HotKeyProperties {
+    //是否开启热点key探测
+    private boolean enabled = false;
+    //滑动窗口的时长，单位毫秒
+    private long windowMillis = 1000;
+    //窗口内访问次数超过该值的key为热点key
+    private long threshold = 1000;
+    //最多同时存在的热点key数量
+    private int capacity = 100;
+    //Count-Min Sketch的宽度
+    private int sketchWidth = 4096;
+    //Count-Min Sketch的深度
+    private int sketchDepth = 4;
+    //热点key本地副本的过期时长，单位毫秒，决定了其他节点更新数据后本节点读到旧数据的最长时间
+    private long localExpireMillis = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(long threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getSketchWidth() {
+        return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+        this.sketchWidth = sketchWidth;
+    }
+
+    public int getSketchDepth() {
+        return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+        this.sketchDepth = sketchDepth;
+    }
+
+    public long getLocalExpireMillis() {
+        return localExpireMillis;
+    }
+
+    public void setLocalExpireMillis(long localExpireMillis) {
+        this.localExpireMillis = localExpireMillis;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 二级缓存（本地缓存 + Redis）配置，按照key前缀划分本地缓存区域
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.near")
+public class NearCacheProperties {
+    //是否开启二级缓存
+    private boolean enabled = false;
+    //本地缓存区域，只有命中区域前缀的key才会进入本地缓存
+    private List<Region> regions = new ArrayList<>();
+    //跨节点失效通知
+    private Invalidation invalidation = new Invalidation();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(List<Region> regions) {
+        this.regions = regions;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    public void setInvalidation(Invalidation invalidation) {
+        this.invalidation = invalidation;
+    }
+
+    /**
+     * 本地缓存区域
+     */
+    public static class Region {
+        //缓存key的前缀
+        private String keyPrefix;
+        //最大缓存条数
+        private long maximumSize = 10000;
+        //写入后过期时长，单位秒
+        private long expireSeconds = 10;
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getExpireSeconds() {
+            return expireSeconds;
+        }
+
+        public void setExpireSeconds(long expireSeconds) {
+            this.expireSeconds = expireSeconds;
+        }
+    }
+
+    /**
+     * 基于Redis发布订阅的本地缓存失效通知
+     */
+    public static class Invalidation {
+        //发布失效消息的频道
+        private String channel = "spring-redis:near-cache:invalidation";
+        //批量发送失效消息的间隔，单位毫秒
+        private long flushMillis = 10;
+        //每条失效消息最多包含的key数量
+        private int batchSize = 500;
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public long getFlushMillis() {
+            return flushMillis;
+        }
+
+        public void setFlushMillis(long flushMillis) {
+            this.flushMillis = flushMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+}
@@ -30,4 +30,9 @@ public interface DistributedLockFactory {
      * 根据key获取分布式锁
      */
     DistributedLock getDistributedLock(String key);
+
+    /**
+     * 根据key获取公平锁，等待的线程按照先后顺序获取锁，适用于竞争激烈、等待时间较长的场景
+     */
+    DistributedLock getFairLock(String key);
 }
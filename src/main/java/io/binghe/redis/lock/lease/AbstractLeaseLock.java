@@ -0,0 +1,139 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.lock.lease;
+
+import cn.hutool.core.util.IdUtil;
+import io.binghe.redis.lock.DistributedLock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于租约的锁的公共实现，子类只需要实现一次加锁尝试，等待、退避和令牌的生成都在这里完成。
+ * 令牌由节点标识和线程ID组成，锁对象本身不保存状态，可以在线程之间共享，不支持重入
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public abstract class AbstractLeaseLock implements DistributedLock {
+    //未获取到锁时重试的最小间隔
+    private static final long RETRY_INTERVAL_MILLIS = 10;
+    //未获取到锁时重试的最大间隔
+    private static final long MAX_RETRY_INTERVAL_MILLIS = 100;
+
+    private final String nodeId;
+    private final long defaultLeaseMillis;
+
+    protected AbstractLeaseLock(String nodeId, long defaultLeaseMillis) {
+        this.nodeId = nodeId;
+        this.defaultLeaseMillis = defaultLeaseMillis;
+    }
+
+    /**
+     * 生成节点标识，同一个工厂创建的锁使用相同的节点标识
+     */
+    public static String newNodeId(){
+        return IdUtil.fastSimpleUUID().concat(":");
+    }
+
+    /**
+     * 尝试一次加锁
+     * @param token 当前线程的令牌
+     * @param leaseMillis 租约时长，单位毫秒
+     * @return 是否获取到锁
+     */
+    protected abstract boolean acquire(String token, long leaseMillis);
+
+    /**
+     * 放弃等待时调用，子类可以在这里清理等待状态
+     * @param token 当前线程的令牌
+     */
+    protected void cancel(String token){
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long leaseMillis = leaseTime > 0 ? unit.toMillis(leaseTime) : defaultLeaseMillis;
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        String token = this.getToken(Thread.currentThread().getId());
+        long interval = RETRY_INTERVAL_MILLIS;
+        boolean acquired = false;
+        try {
+            while (!(acquired = this.acquire(token, leaseMillis))){
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0){
+                    return false;
+                }
+                //退避并加入随机值，避免等待的线程同时重试
+                long sleepMillis = Math.min(remainingMillis, interval + ThreadLocalRandom.current().nextLong(interval));
+                TimeUnit.MILLISECONDS.sleep(sleepMillis);
+                interval = Math.min(interval << 1, MAX_RETRY_INTERVAL_MILLIS);
+            }
+            return true;
+        } finally {
+            if (!acquired){
+                this.cancel(token);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
+        return this.tryLock(waitTime, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock() {
+        String token = this.getToken(Thread.currentThread().getId());
+        if (this.acquire(token, defaultLeaseMillis)){
+            return true;
+        }
+        this.cancel(token);
+        return false;
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) {
+        try {
+            while (!this.tryLock(Long.MAX_VALUE / 2, leaseTime, unit)){
+                //等待时长足够长，正常情况下不会进入循环
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean isHeldByCurrentThread() {
+        return this.isHeldByThread(Thread.currentThread().getId());
+    }
+
+    /**
+     * 获取线程的令牌
+     */
+    protected String getToken(long threadId){
+        return nodeId.concat(Long.toString(threadId));
+    }
+
+    /**
+     * 获取当前线程的令牌
+     */
+    protected String getCurrentToken(){
+        return this.getToken(Thread.currentThread().getId());
+    }
+}
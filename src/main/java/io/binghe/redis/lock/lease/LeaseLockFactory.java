@@ -0,0 +1,187 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.lock.lease;
+
+import io.binghe.redis.lock.DistributedLock;
+import io.binghe.redis.lock.factory.DistributedLockFactory;
+import io.binghe.redis.lock.script.LockScripts;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于SET NX PX的租约锁，加锁一次网络往返，解锁通过Lua脚本比较令牌后删除，同样只需要一次网络往返。
+ * 公平锁在Redis中按照排队顺序发放，只有队首的线程才能获取锁，等待的线程定时刷新排队状态，超时未刷新的线程被移出队列。
+ * 不支持重入，也没有看门狗续期，适用于缓存重建等持有时间短且可以预估的场景
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "distribute.type.lock", havingValue = "lease")
+public class LeaseLockFactory implements DistributedLockFactory {
+
+    //公平锁加锁：先移除队首已经失效的线程，锁空闲且当前线程位于队首或者队列为空时获取锁，否则排队并刷新排队状态
+    private static final RedisScript<Long> FAIR_LOCK_SCRIPT = RedisScript.of(
+            "local now = tonumber(ARGV[3]) " +
+            "while true do " +
+            "  local head = redis.call('zrange', KEYS[2], 0, 0)[1] " +
+            "  if not head then break end " +
+            "  local deadline = tonumber(redis.call('hget', KEYS[3], head)) " +
+            "  if deadline ~= nil and deadline >= now then break end " +
+            "  redis.call('zrem', KEYS[2], head) " +
+            "  redis.call('hdel', KEYS[3], head) " +
+            "end " +
+            "if redis.call('exists', KEYS[1]) == 0 then " +
+            "  local head = redis.call('zrange', KEYS[2], 0, 0)[1] " +
+            "  if not head or head == ARGV[1] then " +
+            "    redis.call('set', KEYS[1], ARGV[1], 'px', ARGV[2]) " +
+            "    redis.call('zrem', KEYS[2], ARGV[1]) " +
+            "    redis.call('hdel', KEYS[3], ARGV[1]) " +
+            "    if redis.call('zcard', KEYS[2]) == 0 then redis.call('del', KEYS[2], KEYS[3], KEYS[4]) end " +
+            "    return 1 " +
+            "  end " +
+            "end " +
+            "if not redis.call('zscore', KEYS[2], ARGV[1]) then " +
+            "  redis.call('zadd', KEYS[2], redis.call('incr', KEYS[4]), ARGV[1]) " +
+            "end " +
+            "redis.call('hset', KEYS[3], ARGV[1], now + tonumber(ARGV[4])) " +
+            "for i = 2, 4 do redis.call('pexpire', KEYS[i], 2 * tonumber(ARGV[4])) end " +
+            "return 0", Long.class);
+    //公平锁放弃等待时移出队列
+    private static final RedisScript<Long> FAIR_CANCEL_SCRIPT = RedisScript.of(
+            "redis.call('hdel', KEYS[3], ARGV[1]) " +
+            "return redis.call('zrem', KEYS[2], ARGV[1])", Long.class);
+    //公平锁key的前缀
+    private static final String FAIR_LOCK_PREFIX = "distribute_fair_lock:{";
+
+    //未指定租约时长时使用的默认租约
+    @Value("${distribute.lock.lease.default-lease-millis:30000}")
+    private long defaultLeaseMillis;
+
+    //公平锁等待的线程超过该时长未刷新排队状态时移出队列，需要大于重试的最大间隔
+    @Value("${distribute.lock.lease.fair-waiter-timeout-millis:5000}")
+    private long fairWaiterTimeoutMillis;
+
+    @Autowired
+    @Qualifier("stringRedisTemplate")
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    //节点标识，与线程ID共同组成令牌
+    private final String nodeId = AbstractLeaseLock.newNodeId();
+    //当前节点正在等待公平锁的线程数量
+    private final AtomicInteger fairLocalWaiting = new AtomicInteger();
+
+    @PostConstruct
+    public void init(){
+        if (meterRegistry != null){
+            Gauge.builder("distribute.lock.fair.local.waiting", fairLocalWaiting, AtomicInteger::get).register(meterRegistry);
+        }
+    }
+
+    @Override
+    public DistributedLock getDistributedLock(String key) {
+        return new LeaseLock(key);
+    }
+
+    @Override
+    public DistributedLock getFairLock(String key) {
+        return new FairLeaseLock(key);
+    }
+
+    private class LeaseLock extends AbstractLeaseLock {
+
+        protected final String key;
+
+        private LeaseLock(String key) {
+            super(nodeId, defaultLeaseMillis);
+            this.key = key;
+        }
+
+        @Override
+        protected boolean acquire(String token, long leaseMillis) {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, leaseMillis, TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public void unlock() {
+            //比较令牌后删除，一次网络往返，锁已经过期或者被其他线程持有时不做处理
+            redisTemplate.execute(LockScripts.COMPARE_AND_DELETE, Collections.singletonList(key), this.getCurrentToken());
+        }
+
+        @Override
+        public boolean isLocked() {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        }
+
+        @Override
+        public boolean isHeldByThread(long threadId) {
+            return this.getToken(threadId).equals(redisTemplate.opsForValue().get(key));
+        }
+    }
+
+    /**
+     * 公平锁，锁key、排队队列、排队状态和排队序号使用相同的哈希标签，保证位于同一个槽
+     */
+    private final class FairLeaseLock extends LeaseLock {
+
+        private final List<String> keys;
+
+        private FairLeaseLock(String key) {
+            super(FAIR_LOCK_PREFIX + key + "}");
+            this.keys = Arrays.asList(this.key, this.key + ":queue", this.key + ":timeout", this.key + ":ticket");
+        }
+
+        @Override
+        protected boolean acquire(String token, long leaseMillis) {
+            Long result = redisTemplate.execute(FAIR_LOCK_SCRIPT, keys, token, String.valueOf(leaseMillis),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(fairWaiterTimeoutMillis));
+            return result != null && result == 1L;
+        }
+
+        @Override
+        protected void cancel(String token) {
+            redisTemplate.execute(FAIR_CANCEL_SCRIPT, keys, token);
+        }
+
+        @Override
+        public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+            fairLocalWaiting.incrementAndGet();
+            try {
+                return super.tryLock(waitTime, leaseTime, unit);
+            } finally {
+                fairLocalWaiting.decrementAndGet();
+            }
+        }
+    }
+}
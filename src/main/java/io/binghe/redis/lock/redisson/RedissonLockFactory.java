@@ -15,22 +15,32 @@
  */
 package io.binghe.redis.lock.redisson;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.binghe.redis.lock.DistributedLock;
 import io.binghe.redis.lock.factory.DistributedLockFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author binghe(微信 : hacker_binghe)
  * @version 1.0.0
- * @description 基于Redisson的分布式锁实现
+ * @description 基于Redisson的分布式锁实现，按照锁名称缓存锁对象，避免每次获取锁都创建新的对象。
+ * 公平锁基于Redisson的RedissonFairLock，等待的线程在Redis中排队，锁释放后通过发布订阅按照顺序唤醒
  * @github https://github.com/binghe001
  * @copyright 公众号: 冰河技术
  */
@@ -39,55 +49,153 @@ import java.util.concurrent.TimeUnit;
 public class RedissonLockFactory implements DistributedLockFactory {
     private final Logger logger = LoggerFactory.getLogger(RedissonLockFactory.class);
 
+    //缓存的锁对象的最大数量
+    @Value("${distribute.lock.cache.maximum-size:10000}")
+    private long maximumSize;
+
     @Autowired
     private RedissonClient redissonClient;
 
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    //RLock是线程安全的，可以在线程之间共享，使用弱引用，没有线程使用的锁对象可以被回收
+    private ConcurrentMap<String, DistributedLock> locks;
+    //公平锁对象
+    private ConcurrentMap<String, DistributedLock> fairLocks;
+    //当前节点正在等待公平锁的线程数量
+    private final AtomicInteger fairLocalWaiting = new AtomicInteger();
+    private Counter acquired;
+    private Counter failed;
+
+    @PostConstruct
+    public void init(){
+        Cache<String, DistributedLock> cache = CacheBuilder.newBuilder().maximumSize(maximumSize).weakValues().build();
+        locks = cache.asMap();
+        Cache<String, DistributedLock> fairCache = CacheBuilder.newBuilder().maximumSize(maximumSize).weakValues().build();
+        fairLocks = fairCache.asMap();
+        if (meterRegistry != null){
+            Gauge.builder("distribute.lock.fair.local.waiting", fairLocalWaiting, AtomicInteger::get).register(meterRegistry);
+            acquired = Counter.builder("distribute.lock.acquire").tag("result", "success").register(meterRegistry);
+            failed = Counter.builder("distribute.lock.acquire").tag("result", "failure").register(meterRegistry);
+        }
+    }
+
     @Override
     public DistributedLock getDistributedLock(String key) {
-        RLock rLock = redissonClient.getLock(key);
-        return new DistributedLock() {
-            @Override
-            public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
-                boolean isLockSuccess = rLock.tryLock(waitTime, leaseTime, unit);
-                logger.info("{} get lock result:{}", key, isLockSuccess);
-                return isLockSuccess;
-            }
+        //先get再computeIfAbsent，命中时不加锁
+        DistributedLock lock = locks.get(key);
+        return lock != null ? lock : locks.computeIfAbsent(key, (k) -> new RedissonDistributedLock(k, redissonClient.getLock(k)));
+    }
 
-            @Override
-            public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
-                return rLock.tryLock(waitTime, unit);
-            }
+    @Override
+    public DistributedLock getFairLock(String key) {
+        DistributedLock lock = fairLocks.get(key);
+        return lock != null ? lock : fairLocks.computeIfAbsent(key, (k) -> new RedissonFairDistributedLock(k, redissonClient.getFairLock(k)));
+    }
 
-            @Override
-            public boolean tryLock() throws InterruptedException {
-                return rLock.tryLock();
-            }
+    private class RedissonDistributedLock implements DistributedLock {
+
+        protected final String key;
+        protected final RLock rLock;
+
+        private RedissonDistributedLock(String key, RLock rLock) {
+            this.key = key;
+            this.rLock = rLock;
+        }
 
-            @Override
-            public void lock(long leaseTime, TimeUnit unit) {
-                rLock.lock(leaseTime, unit);
+        @Override
+        public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+            return this.record(rLock.tryLock(waitTime, leaseTime, unit));
+        }
+
+        @Override
+        public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
+            return this.record(rLock.tryLock(waitTime, unit));
+        }
+
+        @Override
+        public boolean tryLock() throws InterruptedException {
+            return this.record(rLock.tryLock());
+        }
+
+        @Override
+        public void lock(long leaseTime, TimeUnit unit) {
+            rLock.lock(leaseTime, unit);
+        }
+
+        @Override
+        public void unlock() {
+            //当前线程持有锁时锁一定存在，不需要再单独判断isLocked
+            if (isHeldByCurrentThread()) {
+                rLock.unlock();
             }
+        }
+
+        @Override
+        public boolean isLocked() {
+            return rLock.isLocked();
+        }
+
+        @Override
+        public boolean isHeldByThread(long threadId) {
+            return rLock.isHeldByThread(threadId);
+        }
 
-            @Override
-            public void unlock() {
-                if (isLocked() && isHeldByCurrentThread()) {
-                    rLock.unlock();
-                }
+        @Override
+        public boolean isHeldByCurrentThread() {
+            return rLock.isHeldByCurrentThread();
+        }
+
+        //所有加锁方法统一记录加锁结果
+        private boolean record(boolean isLockSuccess){
+            if (acquired != null){
+                (isLockSuccess ? acquired : failed).increment();
+            }
+            if (logger.isDebugEnabled()){
+                logger.debug("{} get lock result:{}", key, isLockSuccess);
             }
-            @Override
-            public boolean isLocked() {
-                return rLock.isLocked();
+            return isLockSuccess;
+        }
+    }
+
+    /**
+     * 公平锁，统计当前节点正在排队等待的线程数量
+     */
+    private final class RedissonFairDistributedLock extends RedissonDistributedLock {
+
+        private RedissonFairDistributedLock(String key, RLock rLock) {
+            super(key, rLock);
+        }
+
+        @Override
+        public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+            fairLocalWaiting.incrementAndGet();
+            try {
+                return super.tryLock(waitTime, leaseTime, unit);
+            } finally {
+                fairLocalWaiting.decrementAndGet();
             }
+        }
 
-            @Override
-            public boolean isHeldByThread(long threadId) {
-                return rLock.isHeldByThread(threadId);
+        @Override
+        public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
+            fairLocalWaiting.incrementAndGet();
+            try {
+                return super.tryLock(waitTime, unit);
+            } finally {
+                fairLocalWaiting.decrementAndGet();
             }
+        }
 
-            @Override
-            public boolean isHeldByCurrentThread() {
-                return rLock.isHeldByCurrentThread();
+        @Override
+        public void lock(long leaseTime, TimeUnit unit) {
+            fairLocalWaiting.incrementAndGet();
+            try {
+                super.lock(leaseTime, unit);
+            } finally {
+                fairLocalWaiting.decrementAndGet();
             }
-        };
+        }
     }
 }
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.lock.script;
+
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 基于令牌的锁共用的Lua脚本
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public final class LockScripts {
+
+    /**
+     * 比较令牌后删除，只删除值等于ARGV[1]的key，支持一次释放多个key，返回删除的数量
+     */
+    public static final RedisScript<Long> COMPARE_AND_DELETE = RedisScript.of(
+            "local count = 0 " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('get', KEYS[i]) == ARGV[1] then count = count + redis.call('del', KEYS[i]) end " +
+            "end " +
+            "return count", Long.class);
+
+    private LockScripts() {
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.lock.striped;
+
+import io.binghe.redis.lock.DistributedLock;
+import io.binghe.redis.lock.lease.AbstractLeaseLock;
+import io.binghe.redis.lock.script.LockScripts;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 分段锁，将任意数量的key映射到固定数量的分段上，Redis中最多只有stripes个锁key。
+ * 分段key使用{name}作为哈希标签，同一分段锁的所有分段位于同一个槽，批量加锁时按照分段序号排序后通过Lua脚本一次网络往返全部获取，
+ * 任意一个分段被占用时全部不获取，不存在持有部分锁再等待的情况，因此不会死锁。
+ * 令牌由节点标识和线程ID组成，不支持重入，映射到同一分段的不同key互斥
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class StripedLock {
+
+    //全部分段都未被占用时一次性获取
+    private static final RedisScript<Long> LOCK_SCRIPT = RedisScript.of(
+            "for i = 1, #KEYS do " +
+            "  if redis.call('exists', KEYS[i]) == 1 then return 0 end " +
+            "end " +
+            "for i = 1, #KEYS do " +
+            "  redis.call('set', KEYS[i], ARGV[1], 'px', ARGV[2]) " +
+            "end " +
+            "return 1", Long.class);
+
+    private final String name;
+    private final String[] stripeKeys;
+    //单个分段的锁，锁对象不保存状态，创建后复用
+    private final StripeLock[] stripeLocks;
+    private final long defaultLeaseMillis;
+    private final String nodeId;
+    private final StringRedisTemplate redisTemplate;
+
+    StripedLock(String name, int stripes, long defaultLeaseMillis, String nodeId, StringRedisTemplate redisTemplate) {
+        if (stripes <= 0){
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        this.name = name;
+        this.defaultLeaseMillis = defaultLeaseMillis;
+        this.nodeId = nodeId;
+        this.redisTemplate = redisTemplate;
+        this.stripeKeys = new String[stripes];
+        this.stripeLocks = new StripeLock[stripes];
+        String prefix = "distribute_lock_stripe:{" + name + "}:";
+        for (int i = 0; i < stripes; i++){
+            stripeKeys[i] = prefix + i;
+            stripeLocks[i] = new StripeLock(Collections.singletonList(stripeKeys[i]));
+        }
+    }
+
+    /**
+     * 获取分段锁的名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取key所在的分段序号，String的hashCode算法固定，不同节点计算的结果相同
+     */
+    public int getStripe(String key){
+        int h = key.hashCode();
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % stripeKeys.length;
+    }
+
+    /**
+     * 获取单个key所在分段的锁
+     */
+    public DistributedLock getLock(String key){
+        return stripeLocks[this.getStripe(key)];
+    }
+
+    /**
+     * 获取多个key所在分段的锁，分段去重后按照序号排序。
+     * 返回的锁对象不保存状态，同一组key重复加锁和释放锁时复用该对象，不需要重新计算分段
+     */
+    public DistributedLock getLock(Collection<String> keys){
+        int[] stripes = new int[keys.size()];
+        int size = 0;
+        for (String key : keys){
+            stripes[size++] = this.getStripe(key);
+        }
+        Arrays.sort(stripes, 0, size);
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++){
+            if (i == 0 || stripes[i] != stripes[i - 1]){
+                result.add(stripeKeys[stripes[i]]);
+            }
+        }
+        //只涉及一个分段时复用单个分段的锁
+        return result.size() == 1 ? stripeLocks[stripes[0]] : new StripeLock(result);
+    }
+
+    /**
+     * 一次网络往返获取多个key所在分段的锁，要么全部获取，要么全部不获取
+     * @param keys 要加锁的key
+     * @param waitTime 最长等待时长
+     * @param leaseTime 租约时长，小于等于0时使用默认租约
+     * @param unit 时间单位
+     * @return 获取到全部的锁时返回持有的锁，通过该锁的unlock()一次网络往返释放全部分段；未获取到时返回null
+     */
+    public DistributedLock tryLockAll(Collection<String> keys, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        DistributedLock lock = this.getLock(keys);
+        return lock.tryLock(waitTime, leaseTime, unit) ? lock : null;
+    }
+
+    /**
+     * 一个或多个分段组成的锁，等待、退避和令牌的生成复用租约锁的实现
+     */
+    private final class StripeLock extends AbstractLeaseLock {
+
+        private final List<String> keys;
+
+        private StripeLock(List<String> keys) {
+            super(nodeId, defaultLeaseMillis);
+            this.keys = keys;
+        }
+
+        @Override
+        protected boolean acquire(String token, long leaseMillis){
+            if (keys.isEmpty()){
+                return true;
+            }
+            Long result = redisTemplate.execute(LOCK_SCRIPT, keys, token, String.valueOf(leaseMillis));
+            return result != null && result == 1L;
+        }
+
+        @Override
+        public void unlock() {
+            if (!keys.isEmpty()){
+                redisTemplate.execute(LockScripts.COMPARE_AND_DELETE, keys, this.getCurrentToken());
+            }
+        }
+
+        @Override
+        public boolean isLocked() {
+            Long count = redisTemplate.countExistingKeys(keys);
+            return count != null && count > 0;
+        }
+
+        @Override
+        public boolean isHeldByThread(long threadId) {
+            if (keys.isEmpty()){
+                return false;
+            }
+            String token = this.getToken(threadId);
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null){
+                return false;
+            }
+            for (String value : values){
+                if (!token.equals(value)){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
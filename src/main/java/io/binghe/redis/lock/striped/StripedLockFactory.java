@@ -0,0 +1,65 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.lock.striped;
+
+import io.binghe.redis.lock.lease.AbstractLeaseLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 分段锁工厂，按照名称获取分段锁，同一名称的分段锁在当前节点只创建一次
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+@Component
+@ConditionalOnProperty(name = "distribute.lock.striped.enabled", havingValue = "true")
+public class StripedLockFactory {
+
+    //每个分段锁的分段数量
+    @Value("${distribute.lock.striped.stripes:1024}")
+    private int stripes;
+
+    //未指定租约时长时使用的默认租约
+    @Value("${distribute.lock.striped.default-lease-millis:30000}")
+    private long defaultLeaseMillis;
+
+    @Autowired
+    @Qualifier("stringRedisTemplate")
+    private StringRedisTemplate redisTemplate;
+
+    //节点标识，与线程ID共同组成令牌
+    private final String nodeId = AbstractLeaseLock.newNodeId();
+
+    private final ConcurrentHashMap<String, StripedLock> stripedLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 根据名称获取分段锁
+     * @param name 分段锁名称，例如业务实体的类型
+     */
+    public StripedLock getStripedLock(String name){
+        //先get再computeIfAbsent，命中时不加锁
+        StripedLock stripedLock = stripedLocks.get(name);
+        return stripedLock != null ? stripedLock : stripedLocks.computeIfAbsent(name, (k) -> new StripedLock(k, stripes, defaultLeaseMillis, nodeId, redisTemplate));
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.compress;
+
+import io.binghe.redis.config.CacheCompressionProperties;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 测试缓存数据的压缩和解压
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class CacheValueCompressorTest {
+
+    @Test
+    public void testRoundTrip(){
+        CacheValueCompressor compressor = this.newCompressor(true, "user:", 100);
+        String value = this.newValue(5000);
+        String compressed = compressor.compress("user:1", value);
+        assertTrue(compressor.isCompressed(compressed));
+        assertTrue(compressed.length() < value.length());
+        assertEquals(value, compressor.decompress(compressed));
+    }
+
+    @Test
+    public void testBelowThresholdOrOtherPrefix(){
+        CacheValueCompressor compressor = this.newCompressor(true, "user:", 100);
+        String small = this.newValue(50);
+        assertSame(small, compressor.compress("user:1", small));
+        String value = this.newValue(5000);
+        assertSame(value, compressor.compress("order:1", value));
+        //未压缩的数据解压时原样返回
+        assertSame(value, compressor.decompress(value));
+    }
+
+    @Test
+    public void testLongestPrefix(){
+        CacheValueCompressor compressor = this.newCompressor(true, "user:", 100, "user:big:", 100000);
+        String value = this.newValue(5000);
+        assertFalse(compressor.isCompressed(compressor.compress("user:big:1", value)));
+        assertTrue(compressor.isCompressed(compressor.compress("user:small:1", value)));
+    }
+
+    @Test
+    public void testDisabled(){
+        CacheValueCompressor enabled = this.newCompressor(true, "user:", 100);
+        CacheValueCompressor disabled = this.newCompressor(false, "user:", 100);
+        String value = this.newValue(5000);
+        assertSame(value, disabled.compress("user:1", value));
+        //关闭压缩后仍然可以读取已经压缩的数据
+        assertEquals(value, disabled.decompress(enabled.compress("user:1", value)));
+    }
+
+    @Test
+    public void testConcurrentRoundTrip() throws Exception {
+        //线程数量超过对象池容量，多出的Deflater和Inflater使用后释放
+        CacheValueCompressor compressor = this.newCompressor(true, "user:", 100);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++){
+                String value = this.newValue(1000 + i * 37);
+                futures.add(executor.submit(() -> value.equals(compressor.decompress(compressor.compress("user:" + value.length(), value)))));
+            }
+            for (Future<Boolean> future : futures){
+                assertTrue(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        compressor.destroy();
+        //释放对象池后仍然可以继续使用
+        String value = this.newValue(5000);
+        assertEquals(value, compressor.decompress(compressor.compress("user:1", value)));
+    }
+
+    private CacheValueCompressor newCompressor(boolean enabled, Object... regions){
+        CacheCompressionProperties properties = new CacheCompressionProperties();
+        properties.setEnabled(enabled);
+        for (int i = 0; i < regions.length; i += 2){
+            CacheCompressionProperties.Region region = new CacheCompressionProperties.Region();
+            region.setKeyPrefix((String) regions[i]);
+            region.setThreshold((Integer) regions[i + 1]);
+            properties.getRegions().add(region);
+        }
+        CacheValueCompressor compressor = new CacheValueCompressor();
+        ReflectionTestUtils.setField(compressor, "cacheCompressionProperties", properties);
+        compressor.init();
+        return compressor;
+    }
+
+    private String newValue(int length){
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length){
+            builder.append("{\"name\":\"冰河\",\"id\":").append(builder.length()).append('}');
+        }
+        return builder.substring(0, length);
+    }
+}
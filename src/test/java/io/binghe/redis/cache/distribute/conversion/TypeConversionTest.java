@@ -0,0 +1,130 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.conversion;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 测试类型转换的类型分类
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class TypeConversionTest {
+
+    /**
+     * 枚举常量带有方法体时，常量的Class为枚举的匿名子类
+     */
+    private enum Operation {
+        PLUS {
+            @Override
+            int apply(int a, int b) {
+                return a + b;
+            }
+        };
+
+        abstract int apply(int a, int b);
+    }
+
+    @Test
+    public void testString(){
+        assertTrue(TypeConversion.isSimpleType("binghe"));
+        assertTrue(TypeConversion.isBasicType("binghe"));
+        assertFalse(TypeConversion.isSimpleType("{\"name\":\"binghe\"}"));
+        assertFalse(TypeConversion.isBasicType(" [1, 2] "));
+        assertTrue(TypeConversion.isSimpleClass(String.class));
+    }
+
+    @Test
+    public void testPrimitive(){
+        assertTrue(TypeConversion.isSimpleType(1L));
+        assertTrue(TypeConversion.isBasicType('c'));
+        assertTrue(TypeConversion.isBasicType(Boolean.TRUE));
+        assertTrue(TypeConversion.isSimpleClass(int.class));
+        assertTrue(TypeConversion.isSimpleClass(Double.class));
+    }
+
+    @Test
+    public void testEnum(){
+        assertTrue(TypeConversion.isSimpleType(TimeUnit.SECONDS));
+        assertTrue(TypeConversion.isSimpleType(Operation.PLUS));
+        assertTrue(TypeConversion.isSimpleClass(TimeUnit.class));
+        //枚举不属于之前版本的简单类型
+        assertFalse(TypeConversion.isBasicType(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBigNumber(){
+        assertTrue(TypeConversion.isSimpleType(new BigDecimal("1.50")));
+        assertTrue(TypeConversion.isSimpleType(BigInteger.TEN));
+        assertTrue(TypeConversion.isSimpleClass(BigDecimal.class));
+        assertFalse(TypeConversion.isBasicType(BigDecimal.ONE));
+    }
+
+    @Test
+    public void testTemporal(){
+        assertTrue(TypeConversion.isSimpleType(LocalDateTime.now()));
+        assertTrue(TypeConversion.isSimpleType(LocalDate.now()));
+        assertTrue(TypeConversion.isSimpleType(Instant.now()));
+        assertTrue(TypeConversion.isSimpleType(Duration.ofSeconds(1)));
+        assertTrue(TypeConversion.isSimpleType(ZoneOffset.UTC));
+        //ZoneId.of返回java.time包中的ZoneRegion
+        assertTrue(TypeConversion.isSimpleType(ZoneId.of("Asia/Shanghai")));
+        assertTrue(TypeConversion.isSimpleClass(LocalDateTime.class));
+        assertFalse(TypeConversion.isBasicType(Instant.now()));
+    }
+
+    @Test
+    public void testCollectionAndObject(){
+        List<String> list = new ArrayList<>();
+        list.add("binghe");
+        assertFalse(TypeConversion.isSimpleType(list));
+        assertFalse(TypeConversion.isSimpleType(new HashMap<String, Object>()));
+        assertFalse(TypeConversion.isSimpleType(new Object()));
+        assertFalse(TypeConversion.isSimpleType(null));
+        assertFalse(TypeConversion.isSimpleClass(List.class));
+        assertFalse(TypeConversion.isSimpleClass(Object.class));
+        assertFalse(TypeConversion.isSimpleClass(null));
+    }
+
+    @Test
+    public void testConvertTemporal(){
+        //JSON序列化后的字符串带有双引号
+        assertEquals(LocalDateTime.of(2023, 1, 2, 3, 4, 5), TypeConversion.convert("\"2023-01-02T03:04:05\"", LocalDateTime.class));
+        assertEquals(Instant.ofEpochSecond(1700000000L), TypeConversion.convert("2023-11-14T22:13:20Z", Instant.class));
+        assertEquals(Duration.ofSeconds(90), TypeConversion.convert("PT1M30S", Duration.class));
+        assertEquals(ZoneOffset.ofHours(8), TypeConversion.convert("+08:00", ZoneOffset.class));
+        assertEquals(ZoneId.of("Asia/Shanghai"), TypeConversion.convert("Asia/Shanghai", ZoneId.class));
+    }
+}
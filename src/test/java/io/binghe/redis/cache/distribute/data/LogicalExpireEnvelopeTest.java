@@ -0,0 +1,141 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 测试逻辑过期数据的存储格式
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class LogicalExpireEnvelopeTest {
+
+    private static final long EXPIRE_MILLIS = 1700000000123L;
+
+    @Test
+    public void testEncodeAndDecode(){
+        String str = LogicalExpireEnvelope.encode(EXPIRE_MILLIS, LogicalExpireEnvelope.FLAG_DATA, "{\"id\":1}");
+        assertTrue(LogicalExpireEnvelope.isEnvelope(str));
+        assertEquals(LogicalExpireEnvelope.HEADER_LENGTH + 8, str.length());
+        assertEquals(LogicalExpireEnvelope.VERSION, str.charAt(1));
+        assertEquals(LogicalExpireEnvelope.FLAG_DATA, LogicalExpireEnvelope.getFlag(str));
+        assertEquals(EXPIRE_MILLIS, LogicalExpireEnvelope.getExpireMillis(str));
+        assertEquals(0L, LogicalExpireEnvelope.getDeltaMillis(str));
+        assertEquals("{\"id\":1}", LogicalExpireEnvelope.getPayload(str));
+    }
+
+    @Test
+    public void testEncodeNullAndEmpty(){
+        String nullValue = LogicalExpireEnvelope.encode(EXPIRE_MILLIS, LogicalExpireEnvelope.FLAG_NULL, "ignored");
+        assertEquals(LogicalExpireEnvelope.HEADER_LENGTH, nullValue.length());
+        assertEquals(LogicalExpireEnvelope.FLAG_NULL, LogicalExpireEnvelope.getFlag(nullValue));
+        assertEquals("", LogicalExpireEnvelope.getPayload(nullValue));
+
+        String emptyValue = LogicalExpireEnvelope.encode(EXPIRE_MILLIS, LogicalExpireEnvelope.FLAG_EMPTY, null);
+        assertEquals(LogicalExpireEnvelope.FLAG_EMPTY, LogicalExpireEnvelope.getFlag(emptyValue));
+        assertEquals(EXPIRE_MILLIS, LogicalExpireEnvelope.getExpireMillis(emptyValue));
+    }
+
+    @Test
+    public void testEncodeWithDelta(){
+        String str = LogicalExpireEnvelope.encodeWithDelta(EXPIRE_MILLIS, 250L, LogicalExpireEnvelope.FLAG_DATA, "[1,2]");
+        assertTrue(LogicalExpireEnvelope.isEnvelope(str));
+        assertEquals(LogicalExpireEnvelope.DELTA_HEADER_LENGTH + 5, str.length());
+        assertEquals(LogicalExpireEnvelope.VERSION_DELTA, str.charAt(1));
+        assertEquals(EXPIRE_MILLIS, LogicalExpireEnvelope.getExpireMillis(str));
+        assertEquals(250L, LogicalExpireEnvelope.getDeltaMillis(str));
+        assertEquals("[1,2]", LogicalExpireEnvelope.getPayload(str));
+    }
+
+    @Test
+    public void testEncodeWithDeltaOutOfRange(){
+        assertEquals(0xFFFFFFFFL, LogicalExpireEnvelope.getDeltaMillis(LogicalExpireEnvelope.encodeWithDelta(EXPIRE_MILLIS, Long.MAX_VALUE, LogicalExpireEnvelope.FLAG_NULL, null)));
+        assertEquals(0L, LogicalExpireEnvelope.getDeltaMillis(LogicalExpireEnvelope.encodeWithDelta(EXPIRE_MILLIS, -1L, LogicalExpireEnvelope.FLAG_NULL, null)));
+    }
+
+    @Test
+    public void testIsEnvelope(){
+        assertFalse(LogicalExpireEnvelope.isEnvelope(null));
+        assertFalse(LogicalExpireEnvelope.isEnvelope("{\"data\":1,\"expireTime\":\"2023-01-01T00:00:00\"}"));
+        String str = LogicalExpireEnvelope.encode(EXPIRE_MILLIS, LogicalExpireEnvelope.FLAG_NULL, null);
+        assertFalse(LogicalExpireEnvelope.isEnvelope(str.substring(0, LogicalExpireEnvelope.HEADER_LENGTH - 1)));
+        //版本2的头部不完整
+        String delta = LogicalExpireEnvelope.encodeWithDelta(EXPIRE_MILLIS, 10L, LogicalExpireEnvelope.FLAG_NULL, null);
+        assertFalse(LogicalExpireEnvelope.isEnvelope(delta.substring(0, LogicalExpireEnvelope.DELTA_HEADER_LENGTH - 1)));
+    }
+
+    @Test
+    public void testIsExpired(){
+        String str = LogicalExpireEnvelope.encode(EXPIRE_MILLIS, LogicalExpireEnvelope.FLAG_DATA, "1");
+        assertFalse(LogicalExpireEnvelope.isExpired(str, EXPIRE_MILLIS - 1));
+        assertTrue(LogicalExpireEnvelope.isExpired(str, EXPIRE_MILLIS));
+    }
+
+    @Test
+    public void testIsExpiredEarlyWhenExpired(){
+        String str = LogicalExpireEnvelope.encodeWithDelta(EXPIRE_MILLIS, 100L, LogicalExpireEnvelope.FLAG_DATA, "1");
+        for (int i = 0; i < 1000; i++){
+            assertTrue(LogicalExpireEnvelope.isExpiredEarly(str, EXPIRE_MILLIS, 1.0D));
+        }
+    }
+
+    @Test
+    public void testIsExpiredEarlyWithoutDelta(){
+        //版本1没有重建耗时，等同于isExpired
+        String str = LogicalExpireEnvelope.encode(EXPIRE_MILLIS, LogicalExpireEnvelope.FLAG_DATA, "1");
+        for (int i = 0; i < 1000; i++){
+            assertFalse(LogicalExpireEnvelope.isExpiredEarly(str, EXPIRE_MILLIS - 1, 10.0D));
+        }
+    }
+
+    @Test
+    public void testIsExpiredEarlyFarFromExpire(){
+        //-ln(random)最大约为37，距离过期时间远大于重建耗时的数据不会提前过期
+        String str = LogicalExpireEnvelope.encodeWithDelta(EXPIRE_MILLIS, 100L, LogicalExpireEnvelope.FLAG_DATA, "1");
+        for (int i = 0; i < 1000; i++){
+            assertFalse(LogicalExpireEnvelope.isExpiredEarly(str, EXPIRE_MILLIS - 100L * 100, 1.0D));
+        }
+    }
+
+    @Test
+    public void testIsExpiredEarlyProbability(){
+        //距离过期时间等于重建耗时且beta为1时，提前过期的概率为P(-ln(random) >= 1) = 1/e
+        String str = LogicalExpireEnvelope.encodeWithDelta(EXPIRE_MILLIS, 1000L, LogicalExpireEnvelope.FLAG_DATA, "1");
+        int trials = 20000;
+        int expired = 0;
+        for (int i = 0; i < trials; i++){
+            if (LogicalExpireEnvelope.isExpiredEarly(str, EXPIRE_MILLIS - 1000L, 1.0D)){
+                expired++;
+            }
+        }
+        assertEquals(Math.exp(-1), (double) expired / trials, 0.03D);
+        //beta越大越倾向于提前重建
+        int eager = 0;
+        for (int i = 0; i < trials; i++){
+            if (LogicalExpireEnvelope.isExpiredEarly(str, EXPIRE_MILLIS - 1000L, 2.0D)){
+                eager++;
+            }
+        }
+        assertTrue(eager > expired);
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.hotkey;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 测试Count-Min Sketch
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class CountMinSketchTest {
+
+    @Test
+    public void testIncrementAndEstimate(){
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        assertEquals(0L, sketch.estimate("user:1"));
+        for (int i = 1; i <= 100; i++){
+            assertEquals(i, sketch.increment("user:1"));
+        }
+        assertEquals(100L, sketch.estimate("user:1"));
+    }
+
+    @Test
+    public void testNeverUnderestimate(){
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 5000; i++){
+            String key = "user:" + (i % 997);
+            sketch.increment(key);
+            counts.merge(key, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : counts.entrySet()){
+            assertTrue(entry.getKey(), sketch.estimate(entry.getKey()) >= entry.getValue());
+        }
+    }
+
+    @Test
+    public void testErrorBound(){
+        //每个key只访问一次，估算值的偏差期望不超过 e * N / width
+        int width = 1024;
+        int total = 10000;
+        CountMinSketch sketch = new CountMinSketch(4, width);
+        for (int i = 0; i < total; i++){
+            sketch.increment("item:" + i);
+        }
+        long error = 0;
+        for (int i = 0; i < total; i++){
+            error += sketch.estimate("item:" + i) - 1;
+        }
+        assertTrue(String.valueOf(error), (double) error / total <= Math.E * total / width);
+    }
+
+    @Test
+    public void testSameHashCodeKeys(){
+        //"Aa"和"BB"的String.hashCode相同，每一行都应该分散到不同的计数器
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 100; i++){
+            sketch.increment("Aa");
+        }
+        assertEquals(0L, sketch.estimate("BB"));
+    }
+
+    @Test
+    public void testClear(){
+        CountMinSketch sketch = new CountMinSketch(2, 64);
+        sketch.increment("key");
+        sketch.increment("key");
+        sketch.clear();
+        assertEquals(0L, sketch.estimate("key"));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2022-9999 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.binghe.redis.cache.distribute.key.murmur3;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author binghe(微信 : hacker_binghe)
+ * @version 1.0.0
+ * @description 测试key编码缓冲区的MurmurHash3 x64 128位摘要，参考值由Guava的Hashing.murmur3_128计算，
+ * 摘要的低64位和高64位分别按照十六进制输出
+ * @github https://github.com/binghe001
+ * @copyright 公众号: 冰河技术
+ */
+public class KeyBufferTest {
+
+    private static final String PREFIX = "user:";
+
+    @Test
+    public void testEmpty(){
+        KeyBuffer buffer = new KeyBuffer();
+        assertEquals(PREFIX + "00000000000000000000000000000000", buffer.toKey(PREFIX, 0));
+        assertEquals(PREFIX + "f02aa77dfa1b8523d1016610da11cbb9", buffer.toKey(PREFIX, 42));
+    }
+
+    @Test
+    public void testReferenceString(){
+        KeyBuffer buffer = new KeyBuffer();
+        for (byte b : "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8)){
+            buffer.writeByte(b);
+        }
+        assertEquals(PREFIX + "e34bbc7bbc071b6c7a433ca9c49a9347", buffer.toKey(PREFIX, 0));
+    }
+
+    @Test
+    public void testTailLengths(){
+        //覆盖尾部不足16字节的各种长度以及完整的块
+        int[] lengths = {1, 8, 9, 15, 16, 17, 31, 33};
+        String[] expected = {
+                "a3d4bd915e085de64cd9de007e6b3282",
+                "30f9b1472688795a7532798ca80aacdf",
+                "ac0990cd131906935f65a86e7048f75a",
+                "8df7c574499bdd55340af20c2682a005",
+                "fcd99ff14053c0329b12bbaa96d650ac",
+                "9837e2b1ab425635ff549b341f135923",
+                "35442c11db9aaab63f123ec482138d6f",
+                "d1df0f05ed5b2e333cb3e29b9f87a546"
+        };
+        KeyBuffer buffer = new KeyBuffer();
+        for (int i = 0; i < lengths.length; i++){
+            this.writeSequence(buffer, lengths[i]);
+            assertEquals(String.valueOf(lengths[i]), PREFIX + expected[i], buffer.toKey(PREFIX, 42));
+        }
+    }
+
+    @Test
+    public void testWriteString(){
+        //长度的小端编码加上UTF-16LE编码的字符
+        KeyBuffer buffer = new KeyBuffer();
+        buffer.writeString("缓存key");
+        assertEquals(PREFIX + "c83e2388b5e71d14c641edce5c734fb2", buffer.toKey(PREFIX, 42));
+    }
+
+    @Test
+    public void testWritePrimitives(){
+        KeyBuffer buffer = new KeyBuffer();
+        buffer.writeByte(1);
+        buffer.writeInt(0x12345678);
+        buffer.writeLong(-2L);
+        buffer.writeChar('冰');
+        assertEquals(PREFIX + "c46f4aad438fc6a0e6ae9afdce057734", buffer.toKey(PREFIX, 7));
+    }
+
+    @Test
+    public void testLargeInput(){
+        //超过保留容量的缓冲区使用后释放，再次使用结果不变
+        KeyBuffer buffer = new KeyBuffer();
+        this.writeSequence(buffer, 70000);
+        assertEquals(PREFIX + "910e32b09f4660543f838bf22ea5e8df", buffer.toKey(PREFIX, 42));
+        this.writeSequence(buffer, 17);
+        assertEquals(PREFIX + "9837e2b1ab425635ff549b341f135923", buffer.toKey(PREFIX, 42));
+    }
+
+    @Test
+    public void testHash64(){
+        //hash64返回128位摘要的低64位
+        KeyBuffer buffer = new KeyBuffer();
+        this.writeSequence(buffer, 33);
+        assertEquals(0xd1df0f05ed5b2e33L, buffer.hash64(42));
+        buffer.writeString("缓存key");
+        assertEquals(0xc83e2388b5e71d14L, buffer.hash64(42));
+        assertEquals(0xc83e2388b5e71d14L, Murmur3Hash.hash64("缓存key", 42));
+    }
+
+    private void writeSequence(KeyBuffer buffer, int length){
+        buffer.reset();
+        for (int i = 0; i < length; i++){
+            buffer.writeByte(i * 31 + 7);
+        }
+    }
+}
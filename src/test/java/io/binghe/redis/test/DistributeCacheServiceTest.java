@@ -16,6 +16,7 @@
 package io.binghe.redis.test;
 
 import cn.hutool.json.JSONUtil;
+import io.binghe.redis.cache.distribute.AsyncDistributeCacheService;
 import io.binghe.redis.cache.distribute.DistributeCacheService;
 import io.binghe.redis.test.bean.User;
 import org.junit.Test;
@@ -25,7 +26,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -42,12 +48,42 @@ public class DistributeCacheServiceTest {
     @Autowired
     private DistributeCacheService distributeCacheService;
 
+    @Autowired
+    private AsyncDistributeCacheService asyncDistributeCacheService;
+
 
     @Test
     public void testQueryWithPassThrough(){
         User user = distributeCacheService.queryWithPassThrough("pass:through:", 1002852L, User.class,  this::getUser, 60L, TimeUnit.SECONDS);
         System.out.println(JSONUtil.toJsonStr(user));
     }
+    @Test
+    public void testMultiQueryWithPassThrough(){
+        Map<Long, User> users = distributeCacheService.multiQueryWithPassThrough("pass:through:multi:", Arrays.asList(1002852L, 1002853L, 1002854L), User.class, this::getUsers, 60L, TimeUnit.SECONDS);
+        System.out.println(JSONUtil.toJsonStr(users));
+    }
+
+    @Test
+    public void testMultiSet(){
+        Map<String, Object> values = new HashMap<>();
+        for (User user : this.getUsers(Arrays.asList(1002852L, 1002853L, 1002854L)).values()){
+            values.put("multi:set:" + user.getId(), user);
+        }
+        distributeCacheService.multiSet(values, 60L, TimeUnit.SECONDS);
+        System.out.println(distributeCacheService.multiGet(values.keySet()));
+    }
+
+    @Test
+    public void testGetKey(){
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("name", "binghe");
+        params.put("pageNo", 1);
+        //相同参数多次生成的key一致
+        System.out.println(distributeCacheService.getKey("key:generator:", params));
+        System.out.println(distributeCacheService.getKey("key:generator:", params));
+        System.out.println(distributeCacheService.getKey("key:generator:", 1002852L));
+    }
+
     @Test
     public void testQueryWithPassThroughWithoutArgs(){
         User user = distributeCacheService.queryWithPassThroughWithoutArgs("pass:through001:", User.class,  this::getUserWithoutArgs, 60L, TimeUnit.SECONDS);
@@ -137,6 +173,18 @@ public class DistributeCacheServiceTest {
         User user = distributeCacheService.queryWithMutex("mutex:", 1002852L, User.class,  this::getUser, 60L, TimeUnit.SECONDS);
         System.out.println(JSONUtil.toJsonStr(user));
     }
+
+    @Test
+    public void testQueryWithEarlyExpire(){
+        User user = distributeCacheService.queryWithEarlyExpire("early:expire:", 1002852L, User.class,  this::getUser, 60L, TimeUnit.SECONDS);
+        System.out.println(JSONUtil.toJsonStr(user));
+    }
+
+    @Test
+    public void testAsyncQueryWithMutex(){
+        User user = asyncDistributeCacheService.queryWithMutex("async:mutex:", 1002852L, User.class, (id) -> CompletableFuture.supplyAsync(() -> this.getUser(id)), 60L, TimeUnit.SECONDS).toCompletableFuture().join();
+        System.out.println(JSONUtil.toJsonStr(user));
+    }
     @Test
     public void testQueryWithMutexWithoutArgs(){
         User user = distributeCacheService.queryWithMutexWithoutArgs("mutex009:", User.class,  this::getUserWithoutArgs, 60L, TimeUnit.SECONDS);
@@ -184,6 +232,17 @@ public class DistributeCacheServiceTest {
         return new User(id, "binghe");
     }
 
+    /**
+     * 模拟带参数从数据库批量查询对象
+     */
+    public Map<Long, User> getUsers(Collection<Long> ids){
+        Map<Long, User> users = new HashMap<>();
+        for (Long id : ids){
+            users.put(id, new User(id, "binghe"));
+        }
+        return users;
+    }
+
     /**
      * 默认不带参数从数据库查询对象
      */